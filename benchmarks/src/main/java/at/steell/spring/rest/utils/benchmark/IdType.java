@@ -0,0 +1,67 @@
+package at.steell.spring.rest.utils.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+
+/**
+ * The identifier types benchmarked, used as JMH parameter
+ */
+public enum IdType
+{
+    /** random UUIDs as strings, the 36 characters the splitter is tuned for */
+    UUID
+    {
+        @Override
+        IdentifierQueryRequest<?> createRequest(final int size)
+        {
+            final List<String> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+            {
+                ids.add(java.util.UUID.randomUUID().toString());
+            }
+            return new IdentifierQueryRequest<>(ids);
+        }
+
+        @Override
+        IdentifierQueryRequest<?> fromString(final String source)
+        {
+            return IdentifierQueryRequest.fromString(source, Function.identity());
+        }
+    },
+    /** sequential long values */
+    LONG
+    {
+        @Override
+        IdentifierQueryRequest<?> createRequest(final int size)
+        {
+            final List<Long> ids = new ArrayList<>(size);
+            for (long i = 0; i < size; i++)
+            {
+                ids.add(i);
+            }
+            return new IdentifierQueryRequest<>(ids);
+        }
+
+        @Override
+        IdentifierQueryRequest<?> fromString(final String source)
+        {
+            return IdentifierQueryRequest.fromString(source, Long::valueOf);
+        }
+    };
+
+    /**
+     * @param size the amount of identifiers
+     * @return a new request of the given size
+     */
+    abstract IdentifierQueryRequest<?> createRequest(int size);
+
+    /**
+     * @param source the serialized request
+     * @return the request parsed with the converter matching this type
+     */
+    abstract IdentifierQueryRequest<?> fromString(String source);
+}
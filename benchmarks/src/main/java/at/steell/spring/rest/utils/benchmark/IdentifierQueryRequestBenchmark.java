@@ -0,0 +1,65 @@
+package at.steell.spring.rest.utils.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+
+/**
+ * Benchmarks splitting, serializing and parsing {@link IdentifierQueryRequest} instances
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentifierQueryRequestBenchmark
+{
+    @Param({"UUID", "LONG"})
+    private IdType idType;
+
+    @Param({"1", "100", "1000", "10000", "100000"})
+    private int size;
+
+    private IdentifierQueryRequest<?> request;
+    private String serialized;
+
+    @Setup
+    public void setup()
+    {
+        request = idType.createRequest(size);
+        serialized = request.toString();
+    }
+
+    @Benchmark
+    public List<? extends IdentifierQueryRequest<?>> split()
+    {
+        return IdentifierQueryRequestSplitter.split(request);
+    }
+
+    @Benchmark
+    public String serialize()
+    {
+        return request.toString();
+    }
+
+    @Benchmark
+    public IdentifierQueryRequest<?> parse()
+    {
+        return idType.fromString(serialized);
+    }
+}
@@ -0,0 +1,91 @@
+package at.steell.spring.rest.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Benchmarks the overhead of an invocation, i.e. splitting, wrapping chunks in context aware callables, running them on
+ * the {@link ThreadPoolExecutorImpl} and collecting the responses, using a client answering immediately
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokeBenchmark
+{
+    @Param({"1", "100", "1000", "10000"})
+    private int size;
+
+    @Param({"4"})
+    private int poolSize;
+
+    private ThreadPoolExecutorImpl executor;
+    private EchoInvoker invoker;
+    private IdentifierQueryRequest<String> request;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup()
+    {
+        executor = new ThreadPoolExecutorImpl(poolSize);
+        invoker = new EchoInvoker(executor);
+        request = (IdentifierQueryRequest<String>) IdType.UUID.createRequest(size);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearContext()
+    {
+        ExecutionContext.clear();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public TypedResponse<String> invoke()
+    {
+        return invoker.echo(request);
+    }
+
+    /**
+     * Invoker of a client responding with the requested ids
+     */
+    private static final class EchoInvoker
+        extends AbstractClientInvoker<Function<IdentifierQueryRequest<String>, TypedResponse<String>>>
+    {
+        private EchoInvoker(final ThreadPoolExecutorImpl executor)
+        {
+            super(ids -> new TypedResponse<>(ids.getIds()), executor);
+        }
+
+        private TypedResponse<String> echo(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke("echo", getClient(), ids);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package at.steell.spring.rest.utils.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.TypedResponseCollector;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+
+/**
+ * Benchmarks collecting chunk responses via {@link TypedResponseCollector} and indexing the collected response via
+ * {@link TypedResponse#getElementsIndexed(Function)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedResponseBenchmark
+{
+    @Param({"UUID", "LONG"})
+    private IdType idType;
+
+    @Param({"1", "100", "1000", "10000", "100000"})
+    private int size;
+
+    private List<TypedResponse<Serializable>> chunks;
+    private TypedResponse<Serializable> response;
+
+    @Setup
+    public void setup()
+    {
+        chunks = new ArrayList<>();
+        for (final IdentifierQueryRequest<?> chunk : IdentifierQueryRequestSplitter.split(idType.createRequest(size)))
+        {
+            final TypedResponse<Serializable> chunkResponse = new TypedResponse<>();
+            chunk.getIds().forEach(chunkResponse::add);
+            chunks.add(chunkResponse);
+        }
+        response = collect();
+    }
+
+    @Benchmark
+    public TypedResponse<Serializable> collect()
+    {
+        return chunks.stream().collect(new TypedResponseCollector<>());
+    }
+
+    @Benchmark
+    public Map<Serializable, Serializable> index()
+    {
+        return response.getElementsIndexed(Function.identity());
+    }
+}
@@ -0,0 +1,68 @@
+package at.steell.spring.rest.utils.simulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the latency of a simulated downstream call
+ */
+@FunctionalInterface
+public interface LatencyDistribution
+{
+    /**
+     * Samples a latency
+     *
+     * @param random the random number generator to use
+     * @return the latency in nanoseconds
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * @param latency the latency
+     * @param unit the time unit of the latency
+     * @return a distribution always returning the given latency
+     */
+    static LatencyDistribution constant(final long latency, final TimeUnit unit)
+    {
+        final long nanos = unit.toNanos(latency);
+        return random -> nanos;
+    }
+
+    /**
+     * @param min the minimum latency
+     * @param max the maximum latency
+     * @param unit the time unit of the latencies
+     * @return a distribution returning latencies uniformly distributed between min and max
+     */
+    static LatencyDistribution uniform(final long min, final long max, final TimeUnit unit)
+    {
+        final long minNanos = unit.toNanos(min);
+        final long range = unit.toNanos(max) - minNanos;
+        return random -> minNanos + (long) (random.nextDouble() * range);
+    }
+
+    /**
+     * @param mean the mean latency
+     * @param unit the time unit of the mean
+     * @return an exponential distribution with the given mean
+     */
+    static LatencyDistribution exponential(final long mean, final TimeUnit unit)
+    {
+        final long meanNanos = unit.toNanos(mean);
+        return random -> (long) (-Math.log(1 - random.nextDouble()) * meanNanos);
+    }
+
+    /**
+     * A log-normal distribution, which models the long tail of typical service latencies
+     *
+     * @param median the median latency
+     * @param sigma the standard deviation of the underlying normal distribution, e.g. <code>0.5</code>
+     * @param unit the time unit of the median
+     * @return a log-normal distribution with the given median
+     */
+    static LatencyDistribution logNormal(final long median, final double sigma, final TimeUnit unit)
+    {
+        final long medianNanos = unit.toNanos(median);
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+}
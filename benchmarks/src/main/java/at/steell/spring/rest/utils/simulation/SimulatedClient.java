@@ -0,0 +1,54 @@
+package at.steell.spring.rest.utils.simulation;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+
+/**
+ * Stub client simulating a downstream service. Every call burns the per-call overhead on the calling thread, waits for
+ * a sampled latency and fails with the configured error rate.
+ */
+public class SimulatedClient
+{
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final long overheadNanos;
+
+    /**
+     * Constructs the client
+     *
+     * @param latency the {@link LatencyDistribution} of a call
+     * @param errorRate the probability of a call failing, between <code>0</code> and <code>1</code>
+     * @param overheadNanos the CPU time spent per call in nanoseconds, e.g. for serialization
+     */
+    public SimulatedClient(final LatencyDistribution latency, final double errorRate, final long overheadNanos)
+    {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.overheadNanos = overheadNanos;
+    }
+
+    /**
+     * Simulates requesting ressources, responding with the requested ids
+     *
+     * @param ids the ids to request
+     * @return a typed response of the given ids
+     */
+    public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long overheadEnd = System.nanoTime() + overheadNanos;
+        while (System.nanoTime() - overheadEnd < 0)
+        {
+            /* busy spin, as the overhead is meant to occupy the worker */
+        }
+        LockSupport.parkNanos(latency.sampleNanos(random));
+        if (random.nextDouble() < errorRate)
+        {
+            throw new IllegalStateException("simulated failure");
+        }
+        return new TypedResponse<>(ids.getIds());
+    }
+}
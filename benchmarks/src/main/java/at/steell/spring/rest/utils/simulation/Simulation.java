@@ -0,0 +1,257 @@
+package at.steell.spring.rest.utils.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * In-process simulation driving an {@link AbstractClientInvoker} against a {@link SimulatedClient}. A configurable
+ * amount of concurrent callers invoke the client for a given duration, the end-to-end latency of every invocation is
+ * recorded. The simulation runs fully offline, so executors, pool sizes and request shapes can be compared side by
+ * side before going to production.
+ * <p>
+ * The amount of chunks per invocation follows from the amount of requested ids, as the request is split by
+ * {@link at.steell.spring.rest.utils.IdentifierQueryRequestSplitter}.
+ */
+public class Simulation
+{
+    private String name = "default";
+    private Supplier<? extends ContextAwareExecutor> executorFactory = () -> new ThreadPoolExecutorImpl(16);
+    private int callers = 8;
+    private long durationNanos = TimeUnit.SECONDS.toNanos(5);
+    private int idsPerCall = 100;
+    private LatencyDistribution latency = LatencyDistribution.logNormal(20, 0.5, TimeUnit.MILLISECONDS);
+    private double errorRate;
+    private long overheadNanos;
+
+    /**
+     * @param scenarioName the name of the scenario, printed in the result
+     * @return this simulation
+     */
+    public Simulation name(final String scenarioName)
+    {
+        this.name = scenarioName;
+        return this;
+    }
+
+    /**
+     * @param factory creates the executor of the simulated invoker, called once per run
+     * @return this simulation
+     */
+    public Simulation executor(final Supplier<? extends ContextAwareExecutor> factory)
+    {
+        this.executorFactory = factory;
+        return this;
+    }
+
+    /**
+     * @param amount the amount of concurrent callers
+     * @return this simulation
+     */
+    public Simulation callers(final int amount)
+    {
+        this.callers = amount;
+        return this;
+    }
+
+    /**
+     * @param duration the duration of a run
+     * @param unit the time unit of the duration
+     * @return this simulation
+     */
+    public Simulation duration(final long duration, final TimeUnit unit)
+    {
+        this.durationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param amount the amount of ids requested per invocation
+     * @return this simulation
+     */
+    public Simulation idsPerCall(final int amount)
+    {
+        this.idsPerCall = amount;
+        return this;
+    }
+
+    /**
+     * @param distribution the {@link LatencyDistribution} of a single downstream call
+     * @return this simulation
+     */
+    public Simulation latency(final LatencyDistribution distribution)
+    {
+        this.latency = distribution;
+        return this;
+    }
+
+    /**
+     * @param rate the probability of a downstream call failing
+     * @return this simulation
+     */
+    public Simulation errorRate(final double rate)
+    {
+        this.errorRate = rate;
+        return this;
+    }
+
+    /**
+     * @param overhead the CPU time spent per downstream call
+     * @param unit the time unit of the overhead
+     * @return this simulation
+     */
+    public Simulation overhead(final long overhead, final TimeUnit unit)
+    {
+        this.overheadNanos = unit.toNanos(overhead);
+        return this;
+    }
+
+    /**
+     * Runs the simulation
+     *
+     * @return the {@link SimulationResult}
+     * @throws InterruptedException if the calling thread got interrupted while waiting for the callers
+     */
+    public SimulationResult run() throws InterruptedException
+    {
+        final ContextAwareExecutor executor = executorFactory.get();
+        final SimulatedInvoker invoker = new SimulatedInvoker(new SimulatedClient(latency, errorRate, overheadNanos),
+            executor);
+        final ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        final AtomicLong failures = new AtomicLong();
+        final List<Future<long[]>> results = new ArrayList<>(callers);
+        final long start = System.nanoTime();
+        final long end = start + durationNanos;
+        try
+        {
+            for (int i = 0; i < callers; i++)
+            {
+                results.add(callerPool.submit(() -> call(invoker, end, failures)));
+            }
+
+            long[] latencies = new long[0];
+            for (final Future<long[]> result : results)
+            {
+                final long[] callerLatencies = result.get();
+                final int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + callerLatencies.length);
+                System.arraycopy(callerLatencies, 0, latencies, offset, callerLatencies.length);
+            }
+            return new SimulationResult(name, latencies, failures.get(), System.nanoTime() - start);
+        }
+        catch (final ExecutionException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+        finally
+        {
+            callerPool.shutdownNow();
+            if (executor instanceof ExecutorService)
+            {
+                ((ExecutorService) executor).shutdownNow();
+            }
+        }
+    }
+
+    private long[] call(final SimulatedInvoker invoker, final long end, final AtomicLong failures)
+    {
+        long[] latencies = new long[1024];
+        int count = 0;
+        try
+        {
+            while (System.nanoTime() - end < 0)
+            {
+                final IdentifierQueryRequest<String> request = createRequest();
+                final long started = System.nanoTime();
+                try
+                {
+                    invoker.getRessources(request);
+                }
+                catch (final RuntimeException e)
+                {
+                    failures.incrementAndGet();
+                }
+                if (count == latencies.length)
+                {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - started;
+                /* the traces of a long running caller are of no interest */
+                ExecutionContext.clear();
+            }
+        }
+        finally
+        {
+            ExecutionContext.clear();
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private IdentifierQueryRequest<String> createRequest()
+    {
+        final List<String> ids = new ArrayList<>(idsPerCall);
+        for (int i = 0; i < idsPerCall; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return new IdentifierQueryRequest<>(ids);
+    }
+
+    /**
+     * Runs a default comparison of pool sizes and request sizes and prints the results
+     *
+     * @param args the duration of every scenario in seconds, optional
+     * @throws InterruptedException if interrupted while running
+     */
+    public static void main(final String[] args) throws InterruptedException
+    {
+        final long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        System.out.println(SimulationResult.header());
+        for (final int poolSize : new int[] {4, 16, 64})
+        {
+            for (final int ids : new int[] {25, 100, 1000})
+            {
+                final SimulationResult result = new Simulation()
+                    .name("pool=" + poolSize + " ids=" + ids)
+                    .executor(() -> new ThreadPoolExecutorImpl(poolSize))
+                    .idsPerCall(ids)
+                    .errorRate(0.001)
+                    .overhead(50, TimeUnit.MICROSECONDS)
+                    .duration(seconds, TimeUnit.SECONDS)
+                    .run();
+                System.out.println(result);
+            }
+        }
+    }
+
+    /**
+     * Invoker of the {@link SimulatedClient}
+     */
+    private static final class SimulatedInvoker extends AbstractClientInvoker<SimulatedClient>
+    {
+        private SimulatedInvoker(final SimulatedClient client, final ContextAwareExecutor executor)
+        {
+            super(client, executor);
+        }
+
+        private TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke("getRessources", getClient()::getRessources, ids);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package at.steell.spring.rest.utils.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of a {@link Simulation} run: throughput and end-to-end latency percentiles of all invocations
+ */
+public final class SimulationResult
+{
+    private final String name;
+    private final long[] latencies;
+    private final long failures;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs the result
+     *
+     * @param name the name of the simulated scenario
+     * @param latencies the end-to-end latencies of all invocations in nanoseconds, sorted in place
+     * @param failures the amount of failed invocations
+     * @param elapsedNanos the wall clock time of the run in nanoseconds
+     */
+    SimulationResult(final String name, final long[] latencies, final long failures, final long elapsedNanos)
+    {
+        Arrays.sort(latencies);
+        this.name = name;
+        this.latencies = latencies;
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getInvocations()
+    {
+        return latencies.length;
+    }
+
+    public long getFailures()
+    {
+        return failures;
+    }
+
+    /**
+     * @return the amount of invocations per second
+     */
+    public double getThroughput()
+    {
+        return latencies.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * @param percentile the percentile, e.g. <code>0.99</code>
+     * @return the end-to-end latency at the given percentile in nanoseconds, or <code>0</code> without invocations
+     */
+    public long getPercentileNanos(final double percentile)
+    {
+        if (latencies.length == 0)
+        {
+            return 0;
+        }
+        final int index = (int) Math.ceil(percentile * latencies.length) - 1;
+        return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+    }
+
+    /**
+     * @return the table header matching {@link #toString()}
+     */
+    public static String header()
+    {
+        return String.format("%-32s %10s %8s %12s %10s %10s %10s", "scenario", "calls", "failed", "calls/s",
+            "p50 ms", "p99 ms", "p999 ms");
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%-32s %10d %8d %12.1f %10.2f %10.2f %10.2f", name, getInvocations(), failures,
+            getThroughput(), millis(getPercentileNanos(0.5)), millis(getPercentileNanos(0.99)),
+            millis(getPercentileNanos(0.999)));
+    }
+
+    private static double millis(final long nanos)
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
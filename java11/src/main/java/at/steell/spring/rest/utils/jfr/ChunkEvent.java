@@ -0,0 +1,39 @@
+package at.steell.spring.rest.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of a chunk executed by a {@link at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl},
+ * either by a worker or inline by a thread waiting for a nested invocation. Its duration spans from the start of the
+ * task to its completion, including the context setup of a worker.
+ */
+@Name("at.steell.spring.rest.utils.Chunk")
+@Label("Invocation Chunk")
+@Category({"Spring Rest Utils"})
+@Description("A single chunk request of a client invocation, committed by the thread running it")
+@StackTrace(false)
+public final class ChunkEvent extends Event
+{
+    @Label("Ids")
+    int idCount;
+
+    @Label("Results")
+    int resultCount;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("Cancelled")
+    @Description("Cancelled before answering, e.g. a hedged request whose sibling answered first")
+    boolean cancelled;
+}
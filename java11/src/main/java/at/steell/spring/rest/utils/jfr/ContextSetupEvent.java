@@ -0,0 +1,32 @@
+package at.steell.spring.rest.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of restoring or clearing the context of a chunk in a worker thread
+ */
+@Name("at.steell.spring.rest.utils.ContextSetup")
+@Label("Chunk Context Setup")
+@Category({"Spring Rest Utils"})
+@Description("Restoring the context of a chunk before it runs, or clearing it afterwards")
+@StackTrace(false)
+public final class ContextSetupEvent extends Event
+{
+    /** the phase of restoring the context */
+    public static final String RESTORE = "restore";
+    /** the phase of clearing the context */
+    public static final String CLEAR = "clear";
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Setup Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long setupTime;
+}
@@ -0,0 +1,212 @@
+package at.steell.spring.rest.utils.jfr;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import at.steell.spring.rest.utils.invoker.InvocationListener;
+import at.steell.spring.rest.utils.thread.ContextAwareFutureTask;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.TaskListener;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+/**
+ * Emits Java Flight Recorder events for invocations, chunks and their context setup, so fan-out latency can be lined
+ * up with GC, lock and socket I/O events of the same recording. Register an instance as {@link InvocationListener} at
+ * every invoker and attach it to the executor by {@link #attachTo(ThreadPoolExecutorImpl)}. Invocation and chunk events
+ * begin as soon as the invocation or task starts and are committed on its completion, so their duration covers the
+ * actual time span in the recording. While the events are not enabled in a running recording, the listener returns
+ * before allocating any event, and is detached from the executor, so the executor does not notify any listener.
+ * <p>
+ * The flight recorder is available on Java 11 or later only, this class is part of the
+ * <code>spring-rest-utils-java11</code> module.
+ */
+public class FlightRecorderListener implements InvocationListener, TaskListener
+{
+    private static final EventType INVOCATION_TYPE = EventType.getEventType(InvocationEvent.class);
+    private static final EventType CHUNK_TYPE = EventType.getEventType(ChunkEvent.class);
+    private static final EventType CONTEXT_SETUP_TYPE = EventType.getEventType(ContextSetupEvent.class);
+
+    private final ConcurrentMap<InvocationTrace, InvocationEvent> invocations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ContextAwareFutureTask<?, ?>, ChunkEvent> chunks = new ConcurrentHashMap<>();
+
+    /**
+     * Attaches this listener to the given executor. The listener is added as {@link TaskListener} while a running
+     * recording enables the chunk or context setup events, and removed as soon as no recording does anymore. The
+     * attachment is kept by the flight recorder, so it should be done once per executor.
+     *
+     * @param executor the executor to emit chunk and context setup events for
+     */
+    public void attachTo(final ThreadPoolExecutorImpl executor)
+    {
+        FlightRecorder.addListener(new Attachment(executor));
+    }
+
+    @Override
+    public void invocationStarted(final String client, final String function, final InvocationTrace trace)
+    {
+        if (INVOCATION_TYPE.isEnabled())
+        {
+            final InvocationEvent event = new InvocationEvent();
+            event.begin();
+            invocations.put(trace, event);
+        }
+    }
+
+    @Override
+    public void invocationCompleted(final String client, final String function, final InvocationTrace trace,
+        final Throwable failure)
+    {
+        final InvocationEvent event = invocations.remove(trace);
+        if (event == null)
+        {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit())
+        {
+            return;
+        }
+        event.client = client;
+        event.function = function;
+        event.idCount = trace.getIdCount();
+        event.chunkCount = trace.getChunks().size();
+        event.failure = failure == null ? null : failure.getClass().getName();
+        event.commit();
+    }
+
+    @Override
+    public void taskStarted(final ContextAwareFutureTask<?, ?> task, final long queueWaitNanos)
+    {
+        if (CHUNK_TYPE.isEnabled())
+        {
+            final ChunkEvent event = new ChunkEvent();
+            event.queueWait = queueWaitNanos;
+            event.begin();
+            chunks.put(task, event);
+        }
+    }
+
+    @Override
+    public void taskCompleted(final ContextAwareFutureTask<?, ?> task, final long runNanos)
+    {
+        final ChunkEvent event = chunks.remove(task);
+        if (event == null)
+        {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit())
+        {
+            return;
+        }
+        event.idCount = task.getCallable().getRequest().getIds().size();
+        event.cancelled = task.isCancelled();
+        if (!event.cancelled)
+        {
+            try
+            {
+                event.resultCount = task.get().getElements().size();
+            }
+            catch (final ExecutionException e)
+            {
+                event.failed = true;
+            }
+            catch (final InterruptedException e)
+            {
+                /* not possible for a completed task */
+                Thread.currentThread().interrupt();
+            }
+        }
+        event.commit();
+    }
+
+    @Override
+    public void taskCancelled(final ContextAwareFutureTask<?, ?> task)
+    {
+        final ChunkEvent event = chunks.remove(task);
+        if (event == null)
+        {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.idCount = task.getCallable().getRequest().getIds().size();
+            event.cancelled = true;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void contextRestored(final ContextAwareFutureTask<?, ?> task, final long restoreNanos)
+    {
+        commitContextSetup(ContextSetupEvent.RESTORE, restoreNanos);
+    }
+
+    @Override
+    public void contextCleared(final ContextAwareFutureTask<?, ?> task, final long clearNanos)
+    {
+        commitContextSetup(ContextSetupEvent.CLEAR, clearNanos);
+    }
+
+    private static void commitContextSetup(final String phase, final long nanos)
+    {
+        if (!CONTEXT_SETUP_TYPE.isEnabled())
+        {
+            return;
+        }
+        final ContextSetupEvent event = new ContextSetupEvent();
+        if (event.shouldCommit())
+        {
+            event.phase = phase;
+            event.setupTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds this listener to an executor while its events are recorded, and removes it otherwise
+     */
+    private final class Attachment implements jdk.jfr.FlightRecorderListener
+    {
+        private final ThreadPoolExecutorImpl executor;
+        private boolean attached;
+
+        private Attachment(final ThreadPoolExecutorImpl executor)
+        {
+            this.executor = executor;
+        }
+
+        @Override
+        public void recorderInitialized(final FlightRecorder recorder)
+        {
+            update();
+        }
+
+        @Override
+        public void recordingStateChanged(final Recording recording)
+        {
+            update();
+        }
+
+        private synchronized void update()
+        {
+            final boolean recorded = CHUNK_TYPE.isEnabled() || CONTEXT_SETUP_TYPE.isEnabled();
+            if (recorded && !attached)
+            {
+                executor.addTaskListener(FlightRecorderListener.this);
+            }
+            else if (!recorded && attached)
+            {
+                executor.removeTaskListener(FlightRecorderListener.this);
+                /* chunks still running are not completed in any recording */
+                chunks.clear();
+            }
+            attached = recorded;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package at.steell.spring.rest.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of an invocation of an {@link at.steell.spring.rest.utils.invoker.AbstractClientInvoker}, its
+ * duration spans from the start of the invocation to its completion
+ */
+@Name("at.steell.spring.rest.utils.Invocation")
+@Label("Client Invocation")
+@Category({"Spring Rest Utils"})
+@Description("An invocation of a client invoker, split into parallel chunks")
+@StackTrace(false)
+public final class InvocationEvent extends Event
+{
+    @Label("Client")
+    String client;
+
+    @Label("Function")
+    String function;
+
+    @Label("Ids")
+    int idCount;
+
+    @Label("Chunks")
+    int chunkCount;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,120 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Captures a {@link CallSite} by a {@link StackWalker}, which stops walking the stack as soon as
+ * {@link CallSite#MAX_FRAMES} frames of the caller are collected, instead of capturing the whole stack. Loaded
+ * reflectively by {@link CallSite} in case the <code>spring-rest-utils-java11</code> module is on the class path.
+ * <p>
+ * The walked frames are kept as they are, resolving their file names and line numbers is deferred until the call site
+ * is formatted. As most invocations are issued from a few places in the code, identical call sites are interned by the
+ * class, method and bytecode index of their frames, so each of them is formatted once only. At most
+ * {@link #MAX_INTERNED} call sites are interned, further ones are captured without interning.
+ */
+final class StackWalkerCapture implements Supplier<CallSite>
+{
+    /** the maximum amount of distinct call sites interned */
+    static final int MAX_INTERNED = 1024;
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final ConcurrentMap<FramesKey, CallSite> interned = new ConcurrentHashMap<>();
+
+    @Override
+    public CallSite get()
+    {
+        final StackWalker.StackFrame[] frames = WALKER.walk(stack -> stack
+            .filter(frame -> CallSite.isCaller(frame.getClassName(), frame.getMethodName()))
+            .limit(CallSite.MAX_FRAMES)
+            .toArray(StackWalker.StackFrame[]::new));
+        final FramesKey key = new FramesKey(frames);
+        final CallSite known = interned.get(key);
+        if (known != null)
+        {
+            return known;
+        }
+
+        final CallSite callSite = new WalkedCallSite(frames);
+        if (interned.size() >= MAX_INTERNED)
+        {
+            return callSite;
+        }
+        final CallSite previous = interned.putIfAbsent(key, callSite);
+        return previous == null ? callSite : previous;
+    }
+
+    /**
+     * Call site of the frames collected by the walker
+     */
+    private static final class WalkedCallSite extends CallSite
+    {
+        private final StackWalker.StackFrame[] frames;
+
+        private WalkedCallSite(final StackWalker.StackFrame[] frames)
+        {
+            this.frames = frames;
+        }
+
+        @Override
+        StackTraceElement[] getFrames()
+        {
+            return Arrays.stream(frames).map(StackWalker.StackFrame::toStackTraceElement)
+                .toArray(StackTraceElement[]::new);
+        }
+    }
+
+    /**
+     * Identifies a call site by the class, method and bytecode index of its frames, which are available without
+     * resolving the frames to {@link StackTraceElement} instances
+     */
+    private static final class FramesKey
+    {
+        private final String[] classNames;
+        private final String[] methodNames;
+        private final int[] byteCodeIndices;
+        private final int hash;
+
+        private FramesKey(final StackWalker.StackFrame[] frames)
+        {
+            classNames = new String[frames.length];
+            methodNames = new String[frames.length];
+            byteCodeIndices = new int[frames.length];
+            for (int i = 0; i < frames.length; i++)
+            {
+                classNames[i] = frames[i].getClassName();
+                methodNames[i] = frames[i].getMethodName();
+                byteCodeIndices[i] = frames[i].getByteCodeIndex();
+            }
+            hash = 31 * (31 * Arrays.hashCode(classNames) + Arrays.hashCode(methodNames))
+                + Arrays.hashCode(byteCodeIndices);
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof FramesKey))
+            {
+                return false;
+            }
+            final FramesKey other = (FramesKey) obj;
+            return hash == other.hash
+                && Arrays.equals(byteCodeIndices, other.byteCodeIndices)
+                && Arrays.equals(methodNames, other.methodNames)
+                && Arrays.equals(classNames, other.classNames);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+}
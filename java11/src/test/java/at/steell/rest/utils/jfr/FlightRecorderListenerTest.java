@@ -0,0 +1,195 @@
+package at.steell.rest.utils.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.HedgingPolicy;
+import at.steell.spring.rest.utils.jfr.FlightRecorderListener;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Unit tests for the flight recorder events emitted by the {@link FlightRecorderListener}
+ */
+public class FlightRecorderListenerTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws Exception
+    {
+        /* given */
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(createIds(100));
+        int chunks = IdentifierQueryRequestSplitter.split(request).size();
+        FlightRecorderListener listener = new FlightRecorderListener();
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(3);
+        listener.attachTo(executor);
+        TestInvoker invoker = new TestInvoker(new TestClient(), executor);
+        invoker.addInvocationListener(listener);
+
+        /* when */
+        List<RecordedEvent> events = record(executor, () -> invoker.getRessources(request));
+
+        /* then */
+        List<RecordedEvent> invocations = filter(events, "at.steell.spring.rest.utils.Invocation");
+        assertEquals(1, invocations.size());
+        assertEquals("TestInvoker", invocations.get(0).getString("client"));
+        assertEquals(100, invocations.get(0).getInt("idCount"));
+        assertEquals(chunks, invocations.get(0).getInt("chunkCount"));
+        assertTrue(invocations.get(0).getDuration().toNanos() > 0);
+        List<RecordedEvent> chunkEvents = filter(events, "at.steell.spring.rest.utils.Chunk");
+        assertEquals(chunks, chunkEvents.size());
+        assertEquals(100, chunkEvents.stream().mapToInt(event -> event.getInt("resultCount")).sum());
+        RecordedEvent invocation = invocations.get(0);
+        assertTrue(chunkEvents.stream().allMatch(event -> !event.getStartTime().isBefore(invocation.getStartTime())
+            && !event.getEndTime().isAfter(invocation.getEndTime())));
+        assertEquals(2 * chunks, filter(events, "at.steell.spring.rest.utils.ContextSetup").size());
+    }
+
+    @Test
+    public void testInlineNestedChunksAreRecorded() throws Exception
+    {
+        /* given */
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(createIds(100));
+        int chunks = IdentifierQueryRequestSplitter.split(request).size();
+        FlightRecorderListener listener = new FlightRecorderListener();
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(1);
+        listener.attachTo(executor);
+        TestInvoker inner = new TestInvoker(new TestClient(), executor);
+        inner.addInvocationListener(listener);
+        TestInvoker outer = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                return inner.getRessources(request);
+            }
+        }, executor);
+        outer.addInvocationListener(listener);
+
+        /* when */
+        List<RecordedEvent> events = record(executor, () -> outer.getRessources(request));
+
+        /* then */
+        assertEquals(1 + chunks, filter(events, "at.steell.spring.rest.utils.Invocation").size());
+        List<RecordedEvent> chunkEvents = filter(events, "at.steell.spring.rest.utils.Chunk");
+        assertEquals(chunks + chunks * chunks, chunkEvents.size());
+        assertTrue(chunkEvents.stream().noneMatch(event -> event.getBoolean("failed")));
+        assertTrue(filter(events, "at.steell.spring.rest.utils.ContextSetup").size() < 2 * chunkEvents.size());
+    }
+
+    @Test
+    public void testCancelledHedgeIsNotRecordedAsFailed() throws Exception
+    {
+        /* given */
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger slowCall = new AtomicInteger(-1);
+        FlightRecorderListener listener = new FlightRecorderListener();
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(3);
+        listener.attachTo(executor);
+        TestInvoker invoker = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                if (calls.incrementAndGet() == slowCall.get())
+                {
+                    try
+                    {
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getRessources(ids);
+            }
+        }, executor);
+        invoker.setHedgingPolicy(new HedgingPolicy(0.9, 1, 20, TimeUnit.MILLISECONDS, 5));
+        for (int i = 0; i < 10; i++)
+        {
+            invoker.getRessources(new IdentifierQueryRequest<>(createIds(1)));
+        }
+        slowCall.set(calls.get() + 1);
+
+        /* when */
+        List<RecordedEvent> events = record(executor,
+            () -> invoker.getRessources(new IdentifierQueryRequest<>(createIds(1))));
+
+        /* then */
+        List<RecordedEvent> chunkEvents = filter(events, "at.steell.spring.rest.utils.Chunk");
+        assertEquals(2, chunkEvents.size());
+        assertEquals(1, chunkEvents.stream().filter(event -> event.getBoolean("cancelled")).count());
+        assertTrue(chunkEvents.stream().noneMatch(event -> event.getBoolean("failed")));
+    }
+
+    private static List<RecordedEvent> record(final ThreadPoolExecutorImpl executor, final Runnable invocation)
+        throws Exception
+    {
+        Path file = Files.createTempFile("invocation", ".jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("at.steell.spring.rest.utils.Invocation");
+            recording.enable("at.steell.spring.rest.utils.Chunk");
+            recording.enable("at.steell.spring.rest.utils.ContextSetup");
+            recording.start();
+            invocation.run();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<String> createIds(final int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static List<RecordedEvent> filter(final List<RecordedEvent> events, final String name)
+    {
+        List<RecordedEvent> filtered = new ArrayList<>();
+        for (RecordedEvent event : events)
+        {
+            if (event.getEventType().getName().equals(name))
+            {
+                filtered.add(event);
+            }
+        }
+        return filtered;
+    }
+}
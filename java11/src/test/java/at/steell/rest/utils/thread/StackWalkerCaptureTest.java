@@ -0,0 +1,56 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+
+/**
+ * Unit tests for call sites captured by the <code>StackWalker</code> of this module
+ */
+public class StackWalkerCaptureTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testIdenticalCallSitesAreInterned()
+    {
+        /* given */
+        ExecutionContext context = ExecutionContext.start();
+        InvocationTrace[] traces = new InvocationTrace[2];
+
+        /* when */
+        for (int i = 0; i < traces.length; i++)
+        {
+            traces[i] = context.startInvocation("test", 1);
+        }
+
+        /* then */
+        String callSite = traces[0].getCallSite();
+        assertTrue(callSite.startsWith(StackWalkerCaptureTest.class.getName() + ".testIdenticalCallSitesAreInterned("));
+        assertSame(callSite, traces[1].getCallSite());
+    }
+
+    @Test
+    public void testCallSitesOfDifferentLinesAreDistinct()
+    {
+        /* given */
+        ExecutionContext context = ExecutionContext.start();
+
+        /* when */
+        InvocationTrace first = context.startInvocation("first", 1);
+        InvocationTrace second = context.startInvocation("second", 1);
+
+        /* then */
+        assertNotEquals(first.getCallSite(), second.getCallSite());
+    }
+}
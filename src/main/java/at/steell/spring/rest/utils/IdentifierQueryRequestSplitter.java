@@ -47,6 +47,35 @@ public final class IdentifierQueryRequestSplitter
         return Collections.singletonList(request);
     }
 
+    /**
+     * Utility method to split a given request into chunks of at most the given amount of identifiers, e.g. for
+     * requests transporting the identifiers in the request body instead of the URL
+     *
+     * @param request the request to be split
+     * @param maxIds the maximum amount of identifiers per chunk
+     * @param <T> the type of id contained in the given request to be split
+     * @return a list of requests split into chunks
+     */
+    public static <T extends Serializable & Comparable<T>> List<IdentifierQueryRequest<T>> split(
+        final IdentifierQueryRequest<T> request, final int maxIds)
+    {
+        if (maxIds <= 0)
+        {
+            throw new IllegalArgumentException("maxIds has to be greater than 0");
+        }
+        if (request == null)
+        {
+            return null;
+        }
+
+        if (request.getIds().size() > maxIds)
+        {
+            return partition(request, maxIds);
+        }
+
+        return Collections.singletonList(request);
+    }
+
     /**
      * Internal utility method splitting a request payload to not exceed a length of {@value #MAXIMUM_REQ_LENGTH} bytes
      *
@@ -55,10 +84,15 @@ public final class IdentifierQueryRequestSplitter
      */
     private static <T extends Serializable & Comparable<T>> List<IdentifierQueryRequest<T>> splitRequest(
         final IdentifierQueryRequest<T> request)
+    {
+        return partition(request, MAXIMUM_REQ_LENGTH / UNIFORM_ID_LENGTH);
+    }
+
+    private static <T extends Serializable & Comparable<T>> List<IdentifierQueryRequest<T>> partition(
+        final IdentifierQueryRequest<T> request, final int size)
     {
         //sort the ids to allow caching to work properly
-        return ListUtils.partition(request.getIds().stream().sorted().collect(Collectors.toList()),
-            MAXIMUM_REQ_LENGTH / UNIFORM_ID_LENGTH).stream()
+        return ListUtils.partition(request.getIds().stream().sorted().collect(Collectors.toList()), size).stream()
             .map(IdentifierQueryRequest::new)
             .collect(Collectors.toList());
     }
@@ -0,0 +1,311 @@
+package at.steell.spring.rest.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import at.steell.spring.rest.utils.dto.TypedResponse;
+
+/**
+ * Collected response payload of very large invocations, keeping elements in memory up to a configured budget. Once the
+ * budget is exceeded, the elements are serialized to temporary files, hash partitioned, so equal elements always end
+ * up in the same partition. Every partition is written by a single object stream, which is reset after every spill,
+ * so class descriptors are written once per spill instead of once per element. Iterating a spilled response reads one
+ * partition after the other by a buffered stream and deduplicates its elements, so at most the distinct elements of a
+ * single partition are held in memory. The amount of partitions should therefore be chosen around the expected amount
+ * of elements divided by the in-memory budget. As every partition is read sequentially and only once, a memory mapping
+ * would not read it faster, and unlike a mapping a stream releases the file as soon as it is closed, so the temporary
+ * files can be deleted right away on every platform.
+ * <p>
+ * Iterating a spilled response finishes it, elements can not be added afterwards. The temporary files are deleted by
+ * {@link #close()}.
+ *
+ * @param <TYPE> the type of payload
+ */
+public class SpillingResponse<TYPE extends Serializable> implements Iterable<TYPE>, Closeable
+{
+    /** the default amount of partitions spilled elements are distributed to */
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int maxInMemory;
+    private final int partitionCount;
+    private Set<TYPE> elements = new HashSet<>();
+    private Path directory;
+    private Path[] files;
+    private ObjectOutputStream[] partitions;
+    private long[] partitionSizes;
+    private long spilledCount;
+    private boolean finished;
+
+    /**
+     * Constructs the response with {@value #DEFAULT_PARTITIONS} partitions
+     *
+     * @param maxInMemory the maximum amount of elements kept in memory before spilling them to disk
+     */
+    public SpillingResponse(final int maxInMemory)
+    {
+        this(maxInMemory, DEFAULT_PARTITIONS);
+    }
+
+    /**
+     * Constructs the response
+     *
+     * @param maxInMemory the maximum amount of elements kept in memory before spilling them to disk
+     * @param partitionCount the amount of partitions spilled elements are distributed to
+     */
+    public SpillingResponse(final int maxInMemory, final int partitionCount)
+    {
+        if (maxInMemory <= 0)
+        {
+            throw new IllegalArgumentException("maxInMemory has to be greater than 0");
+        }
+        if (partitionCount <= 0)
+        {
+            throw new IllegalArgumentException("partitionCount has to be greater than 0");
+        }
+        this.maxInMemory = maxInMemory;
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Adds an element, spilling all elements held in memory in case the budget is exceeded
+     *
+     * @param element the element to add
+     */
+    public synchronized void add(final TYPE element)
+    {
+        if (finished)
+        {
+            throw new IllegalStateException("spilled response already iterated");
+        }
+        elements.add(element);
+        if (elements.size() > maxInMemory)
+        {
+            spill();
+        }
+    }
+
+    /**
+     * Adds all given elements
+     *
+     * @param added the elements to add
+     */
+    public synchronized void addAll(final Collection<TYPE> added)
+    {
+        added.forEach(this::add);
+    }
+
+    /**
+     * Adds the elements of the given response
+     *
+     * @param response the {@link TypedResponse} to add the elements of
+     */
+    public void addAll(final TypedResponse<TYPE> response)
+    {
+        addAll(response.getElements());
+    }
+
+    /**
+     * @return <code>true</code> in case elements got spilled to disk
+     */
+    public synchronized boolean isSpilled()
+    {
+        return partitions != null;
+    }
+
+    /**
+     * @return the amount of elements spilled to disk, including duplicates of elements spilled before
+     */
+    public synchronized long getSpilledCount()
+    {
+        return spilledCount;
+    }
+
+    /**
+     * Returns an iterator over the distinct elements. In case elements got spilled, the iterator reads the partitions
+     * one after the other and this response is finished.
+     */
+    @Override
+    public synchronized Iterator<TYPE> iterator()
+    {
+        if (partitions == null)
+        {
+            return Collections.unmodifiableSet(elements).iterator();
+        }
+        if (!finished)
+        {
+            spill();
+            closePartitions();
+            finished = true;
+        }
+        return new PartitionIterator();
+    }
+
+    /**
+     * @return a sequential stream over the distinct elements, see {@link #iterator()}
+     */
+    public Stream<TYPE> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Deletes the temporary files of spilled elements
+     */
+    @Override
+    public synchronized void close()
+    {
+        elements = new HashSet<>();
+        finished = true;
+        if (directory == null)
+        {
+            return;
+        }
+        closePartitions();
+        try
+        {
+            for (final Path file : files)
+            {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        directory = null;
+    }
+
+    private void spill()
+    {
+        try
+        {
+            if (partitions == null)
+            {
+                directory = Files.createTempDirectory("spilling-response");
+                files = new Path[partitionCount];
+                partitions = new ObjectOutputStream[partitionCount];
+                partitionSizes = new long[partitionCount];
+                for (int i = 0; i < partitionCount; i++)
+                {
+                    files[i] = directory.resolve("partition-" + i);
+                    partitions[i] = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(files[i]),
+                        BUFFER_SIZE));
+                }
+            }
+            for (final TYPE element : elements)
+            {
+                final int partition = partitionOf(element);
+                partitions[partition].writeObject(element);
+                partitionSizes[partition]++;
+                spilledCount++;
+            }
+            /* the streams would otherwise keep a reference to every element written */
+            for (final ObjectOutputStream partition : partitions)
+            {
+                partition.reset();
+            }
+            elements = new HashSet<>();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closePartitions()
+    {
+        try
+        {
+            for (final ObjectOutputStream partition : partitions)
+            {
+                partition.close();
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int partitionOf(final Object element)
+    {
+        final int hash = element.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+
+    /**
+     * Iterates the partitions one after the other, holding the distinct elements of a single partition in memory
+     */
+    private final class PartitionIterator implements Iterator<TYPE>
+    {
+        private int partition;
+        private Iterator<TYPE> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!current.hasNext() && partition < partitionCount)
+            {
+                current = read(files[partition], partitionSizes[partition]).iterator();
+                partition++;
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public TYPE next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Set<TYPE> read(final Path file, final long size)
+        {
+            final Set<TYPE> distinct = new HashSet<>();
+            if (size == 0)
+            {
+                return distinct;
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file),
+                BUFFER_SIZE)))
+            {
+                for (long i = 0; i < size; i++)
+                {
+                    distinct.add((TYPE) in.readObject());
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            catch (final ClassNotFoundException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            return distinct;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package at.steell.spring.rest.utils;
+
+import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import at.steell.spring.rest.utils.dto.TypedResponse;
+
+/**
+ * Java8 lamda collector collecting {@link TypedResponse} payloads into a {@link SpillingResponse}, for results too
+ * large to be held in memory by a {@link TypedResponseCollector}
+ *
+ * @param <TYPE> the type of payload to be used
+ */
+public class SpillingResponseCollector<TYPE extends Serializable>
+    implements Collector<TypedResponse<TYPE>, SpillingResponse<TYPE>, SpillingResponse<TYPE>>
+{
+    private final int maxInMemory;
+    private final int partitionCount;
+
+    /**
+     * Constructs the collector
+     *
+     * @param maxInMemory the maximum amount of elements kept in memory before spilling them to disk
+     * @param partitionCount the amount of partitions spilled elements are distributed to
+     */
+    public SpillingResponseCollector(final int maxInMemory, final int partitionCount)
+    {
+        this.maxInMemory = maxInMemory;
+        this.partitionCount = partitionCount;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics()
+    {
+        return EnumSet.of(Characteristics.UNORDERED, Characteristics.CONCURRENT, Characteristics.IDENTITY_FINISH);
+    }
+
+    @Override
+    public Supplier<SpillingResponse<TYPE>> supplier()
+    {
+        return () -> new SpillingResponse<>(maxInMemory, partitionCount);
+    }
+
+    @Override
+    public BiConsumer<SpillingResponse<TYPE>, TypedResponse<TYPE>> accumulator()
+    {
+        return SpillingResponse::addAll;
+    }
+
+    @Override
+    public BinaryOperator<SpillingResponse<TYPE>> combiner()
+    {
+        return this::combine;
+    }
+
+    @Override
+    public Function<SpillingResponse<TYPE>, SpillingResponse<TYPE>> finisher()
+    {
+        return Function.identity();
+    }
+
+    /**
+     * Internal utility to add the elements of right to left, deleting the files of right
+     *
+     * @param left the left {@link SpillingResponse}
+     * @param right the right {@link SpillingResponse}
+     * @return the combined left
+     */
+    private SpillingResponse<TYPE> combine(final SpillingResponse<TYPE> left, final SpillingResponse<TYPE> right)
+    {
+        try
+        {
+            right.forEach(left::add);
+        }
+        finally
+        {
+            right.close();
+        }
+        return left;
+    }
+}
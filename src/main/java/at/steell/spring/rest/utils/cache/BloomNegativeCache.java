@@ -0,0 +1,158 @@
+package at.steell.spring.rest.utils.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compact {@link NegativeCache} backed by two generations of a Bloom filter. Absent identifiers are added to the
+ * current generation, lookups check both generations. The generations rotate every half of the time to live, or
+ * earlier once the current one holds the expected amount of identifiers, so an identifier is remembered for at most
+ * the time to live.
+ * <p>
+ * The memory used is fixed and independent of the identifiers' size, at the price of false positives: with the
+ * configured probability an identifier never added is reported absent and therefore not requested. Only use this cache
+ * where such a miss is acceptable, otherwise use an {@link ExpiringNegativeCache}.
+ */
+public class BloomNegativeCache implements NegativeCache
+{
+    private final long rotationNanos;
+    private final int expectedIds;
+    private final int bits;
+    private final int hashes;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * Constructs the cache
+     *
+     * @param ttl the maximum time an absent identifier is remembered
+     * @param unit the time unit of the time to live
+     * @param expectedIds the amount of absent identifiers expected within half of the time to live
+     * @param falsePositiveRate the tolerated probability of reporting an identifier absent, which was never added
+     */
+    public BloomNegativeCache(final long ttl, final TimeUnit unit, final int expectedIds,
+        final double falsePositiveRate)
+    {
+        if (ttl <= 0 || expectedIds <= 0)
+        {
+            throw new IllegalArgumentException("ttl and expectedIds have to be greater than 0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+        {
+            throw new IllegalArgumentException("falsePositiveRate has to be between 0 and 1");
+        }
+        this.rotationNanos = unit.toNanos(ttl) / 2;
+        this.expectedIds = expectedIds;
+        /* as both generations are checked, each one gets half of the tolerated rate */
+        final double ln2 = Math.log(2);
+        this.bits = (int) Math.ceil(-expectedIds * Math.log(falsePositiveRate / 2) / (ln2 * ln2));
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedIds * ln2));
+        this.current = new Generation(bits, System.nanoTime());
+        this.previous = new Generation(bits, System.nanoTime());
+    }
+
+    @Override
+    public boolean isAbsent(final Object id)
+    {
+        final Generation generation = rotate();
+        final long hash = hash(id);
+        return generation.contains(hash, hashes) || previous.contains(hash, hashes);
+    }
+
+    @Override
+    public void addAbsent(final Object id)
+    {
+        final Generation generation = rotate();
+        generation.add(hash(id), hashes);
+        if (generation.count.incrementAndGet() >= expectedIds)
+        {
+            rotate(generation, false);
+        }
+    }
+
+    private Generation rotate()
+    {
+        final Generation generation = current;
+        final long elapsed = System.nanoTime() - generation.started;
+        if (elapsed >= rotationNanos)
+        {
+            /* after an idle gap the current generation is older than the time to live as well */
+            rotate(generation, elapsed >= 2 * rotationNanos);
+            return current;
+        }
+        return generation;
+    }
+
+    private synchronized void rotate(final Generation expected, final boolean expired)
+    {
+        if (current == expected)
+        {
+            previous = expired ? new Generation(bits, System.nanoTime()) : expected;
+            current = new Generation(bits, System.nanoTime());
+        }
+    }
+
+    /**
+     * Computes a 64 bit hash, the upper and lower half are combined to derive all bit positions
+     */
+    private static long hash(final Object id)
+    {
+        long h = id.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * A single generation of the filter
+     */
+    private static final class Generation
+    {
+        private final AtomicLongArray words;
+        private final int bitCount;
+        private final long started;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Generation(final int bitCount, final long started)
+        {
+            this.words = new AtomicLongArray((bitCount + 63) / 64);
+            this.bitCount = bitCount;
+            this.started = started;
+        }
+
+        private void add(final long hash, final int hashes)
+        {
+            final int h1 = (int) hash;
+            final int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++)
+            {
+                final int bit = Math.floorMod(h1 + i * h2, bitCount);
+                final long mask = 1L << bit;
+                long word = words.get(bit >>> 6);
+                while ((word & mask) == 0 && !words.compareAndSet(bit >>> 6, word, word | mask))
+                {
+                    word = words.get(bit >>> 6);
+                }
+            }
+        }
+
+        private boolean contains(final long hash, final int hashes)
+        {
+            final int h1 = (int) hash;
+            final int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++)
+            {
+                final int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package at.steell.spring.rest.utils.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An exact {@link NegativeCache}, remembering every absent identifier for the configured time to live. The amount of
+ * identifiers is bounded, once reached further identifiers are not remembered until space is available again.
+ * Identifiers are queued in the order they were added, which is the order they expire in, so adding an identifier
+ * only purges the identifiers expired meanwhile instead of scanning all of them.
+ */
+public class ExpiringNegativeCache implements NegativeCache
+{
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<Object, Long> expiries = new ConcurrentHashMap<>();
+    private final Queue<Expiry> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs the cache
+     *
+     * @param ttl the time an absent identifier is remembered
+     * @param unit the time unit of the time to live
+     * @param maxSize the maximum amount of identifiers remembered
+     */
+    public ExpiringNegativeCache(final long ttl, final TimeUnit unit, final int maxSize)
+    {
+        if (ttl <= 0 || maxSize <= 0)
+        {
+            throw new IllegalArgumentException("ttl and maxSize have to be greater than 0");
+        }
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public boolean isAbsent(final Object id)
+    {
+        final Long expiry = expiries.get(id);
+        if (expiry == null)
+        {
+            return false;
+        }
+        if (System.nanoTime() - expiry >= 0)
+        {
+            expiries.remove(id, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void addAbsent(final Object id)
+    {
+        final long now = System.nanoTime();
+        purge(now);
+        if (expiries.size() >= maxSize)
+        {
+            return;
+        }
+        final Expiry expiry = new Expiry(id, now + ttlNanos);
+        final Long previous = expiries.putIfAbsent(id, expiry.nanos);
+        if (previous == null || now - previous >= 0 && expiries.replace(id, previous, expiry.nanos))
+        {
+            queue.add(expiry);
+        }
+    }
+
+    private void purge(final long now)
+    {
+        synchronized (queue)
+        {
+            Expiry head = queue.peek();
+            while (head != null && now - head.nanos >= 0)
+            {
+                queue.poll();
+                expiries.remove(head.id, head.nanos);
+                head = queue.peek();
+            }
+        }
+    }
+
+    /**
+     * @return the amount of identifiers currently remembered, including expired ones not purged yet
+     */
+    public int size()
+    {
+        return expiries.size();
+    }
+
+    /**
+     * An identifier queued for expiry
+     */
+    private static final class Expiry
+    {
+        private final Object id;
+        private final long nanos;
+
+        private Expiry(final Object id, final long nanos)
+        {
+            this.id = id;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package at.steell.spring.rest.utils.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+
+/**
+ * A cache remembering identifiers which were requested, but not found downstream, for a limited time. An invoker
+ * drops such identifiers from a request before splitting it, so repeated lookups of absent identifiers don't cause any
+ * traffic.
+ * <p>
+ * An invoker shares its cache between all client functions and principals, so it remembers the identifiers within a
+ * scope, see {@link #filter(Object, IdentifierQueryRequest)} and {@link #addAbsent(Object, Object)}. An identifier
+ * absent for one function or principal is therefore still requested by another one.
+ */
+public interface NegativeCache
+{
+    /**
+     * @param id the identifier to check
+     * @return <code>true</code> in case the identifier is known to be absent
+     */
+    boolean isAbsent(Object id);
+
+    /**
+     * Remembers the given identifier as absent
+     *
+     * @param id the absent identifier
+     */
+    void addAbsent(Object id);
+
+    /**
+     * Remembers the given identifier as absent within the given scope
+     *
+     * @param scope the scope the identifier is absent in, e.g. the invoked function and the principal
+     * @param id the absent identifier
+     */
+    default void addAbsent(final Object scope, final Object id)
+    {
+        addAbsent(Arrays.asList(scope, id));
+    }
+
+    /**
+     * Removes all identifiers known to be absent from the given request
+     *
+     * @param request the request to filter
+     * @param <ID> the identifier type
+     * @return the given request in case no identifier is known to be absent, otherwise a new request
+     */
+    default <ID extends Serializable & Comparable<ID>> IdentifierQueryRequest<ID> filter(
+        final IdentifierQueryRequest<ID> request)
+    {
+        final List<ID> present = request.getIds().stream().filter(id -> !isAbsent(id)).collect(Collectors.toList());
+        return present.size() == request.getIds().size() ? request : new IdentifierQueryRequest<>(present);
+    }
+
+    /**
+     * Removes all identifiers known to be absent within the given scope from the given request
+     *
+     * @param scope the scope the identifiers were remembered in, see {@link #addAbsent(Object, Object)}
+     * @param request the request to filter
+     * @param <ID> the identifier type
+     * @return the given request in case no identifier is known to be absent, otherwise a new request
+     */
+    default <ID extends Serializable & Comparable<ID>> IdentifierQueryRequest<ID> filter(final Object scope,
+        final IdentifierQueryRequest<ID> request)
+    {
+        final List<ID> present = request.getIds().stream().filter(id -> !isAbsent(Arrays.asList(scope, id)))
+            .collect(Collectors.toList());
+        return present.size() == request.getIds().size() ? request : new IdentifierQueryRequest<>(present);
+    }
+}
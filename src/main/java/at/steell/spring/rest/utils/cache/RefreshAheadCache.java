@@ -0,0 +1,218 @@
+package at.steell.spring.rest.utils.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A cache of response elements by identifier, serving stale elements while they are revalidated. Elements younger than
+ * the soft time to live are fresh. Elements older than the soft, but younger than the hard time to live are still
+ * served, but claimed for a background refresh, at most once at a time. Only missing or hard expired elements have to
+ * be requested before answering. The amount of elements is bounded, once reached further elements are not cached until
+ * space is available again. Elements are queued in the order they were loaded, which is the order they expire in, so
+ * every {@link #put(Collection, Collection, Function)} purges the hard expired elements once without scanning all of
+ * them.
+ *
+ * @param <ID> the identifier type
+ * @param <ELEMENT> the element type
+ */
+public class RefreshAheadCache<ID extends Serializable & Comparable<ID>, ELEMENT extends Serializable>
+{
+    private final long softTtlNanos;
+    private final long hardTtlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<ID, Entry<ID, ELEMENT>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<ID, ELEMENT>> queue = new ConcurrentLinkedQueue<>();
+    private final Set<ID> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the cache
+     *
+     * @param softTtl the age an element is refreshed in the background at
+     * @param hardTtl the age an element is not served anymore at
+     * @param unit the time unit of the times to live
+     * @param maxSize the maximum amount of elements cached
+     */
+    public RefreshAheadCache(final long softTtl, final long hardTtl, final TimeUnit unit, final int maxSize)
+    {
+        if (softTtl <= 0 || hardTtl < softTtl || maxSize <= 0)
+        {
+            throw new IllegalArgumentException("softTtl and maxSize have to be greater than 0 and hardTtl must not be "
+                + "less than softTtl");
+        }
+        this.softTtlNanos = unit.toNanos(softTtl);
+        this.hardTtlNanos = unit.toNanos(hardTtl);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Looks up the elements of the given identifiers. Stale identifiers not already being refreshed are claimed for
+     * refreshing, the claim has to be released via {@link #refreshed(Collection)}.
+     *
+     * @param ids the identifiers to look up
+     * @return the {@link Lookup} partitioning the identifiers
+     */
+    public Lookup<ID, ELEMENT> lookup(final Collection<ID> ids)
+    {
+        final long now = System.nanoTime();
+        final Lookup<ID, ELEMENT> lookup = new Lookup<>();
+        for (final ID id : ids)
+        {
+            final Entry<ID, ELEMENT> entry = entries.get(id);
+            final long age = entry == null ? Long.MAX_VALUE : now - entry.loadedNanos;
+            if (age >= hardTtlNanos)
+            {
+                lookup.missing.add(id);
+                continue;
+            }
+            lookup.hits.add(entry.element);
+            if (age >= softTtlNanos && refreshing.add(id))
+            {
+                lookup.stale.add(id);
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * Caches the given elements as loaded now, identifiers requested but not answered are removed
+     *
+     * @param requested the identifiers requested
+     * @param elements the elements answered
+     * @param idFunction the function deriving the identifier of an element
+     */
+    public void put(final Collection<ID> requested, final Collection<ELEMENT> elements,
+        final Function<ELEMENT, ID> idFunction)
+    {
+        final long now = System.nanoTime();
+        purge(now);
+        final Set<ID> answered = new HashSet<>();
+        for (final ELEMENT element : elements)
+        {
+            final ID id = idFunction.apply(element);
+            answered.add(id);
+            if (entries.size() >= maxSize && !entries.containsKey(id))
+            {
+                continue;
+            }
+            final Entry<ID, ELEMENT> entry = new Entry<>(id, element, now);
+            entries.put(id, entry);
+            queue.add(entry);
+        }
+        for (final ID id : requested)
+        {
+            if (!answered.contains(id))
+            {
+                entries.remove(id);
+            }
+        }
+    }
+
+    private void purge(final long now)
+    {
+        synchronized (queue)
+        {
+            Entry<ID, ELEMENT> head = queue.peek();
+            while (head != null && now - head.loadedNanos >= hardTtlNanos)
+            {
+                queue.poll();
+                entries.remove(head.id, head);
+                head = queue.peek();
+            }
+        }
+    }
+
+    /**
+     * Releases the refresh claims of the given identifiers
+     *
+     * @param ids the identifiers claimed by {@link #lookup(Collection)}
+     */
+    public void refreshed(final Collection<ID> ids)
+    {
+        refreshing.removeAll(ids);
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear()
+    {
+        synchronized (queue)
+        {
+            entries.clear();
+            queue.clear();
+        }
+    }
+
+    /**
+     * @return the amount of elements currently cached, including hard expired ones not purged yet
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * The result of a lookup
+     *
+     * @param <ID> the identifier type
+     * @param <ELEMENT> the element type
+     */
+    public static final class Lookup<ID, ELEMENT>
+    {
+        private final List<ELEMENT> hits = new ArrayList<>();
+        private final List<ID> missing = new ArrayList<>();
+        private final List<ID> stale = new ArrayList<>();
+
+        /**
+         * @return the cached elements, including stale ones
+         */
+        public List<ELEMENT> getHits()
+        {
+            return Collections.unmodifiableList(hits);
+        }
+
+        /**
+         * @return the identifiers without an element to serve, which have to be requested
+         */
+        public List<ID> getMissing()
+        {
+            return Collections.unmodifiableList(missing);
+        }
+
+        /**
+         * @return the identifiers of stale elements claimed for refreshing by this lookup
+         */
+        public List<ID> getStale()
+        {
+            return Collections.unmodifiableList(stale);
+        }
+    }
+
+    /**
+     * A cached element
+     */
+    private static final class Entry<ID, ELEMENT>
+    {
+        private final ID id;
+        private final ELEMENT element;
+        private final long loadedNanos;
+
+        private Entry(final ID id, final ELEMENT element, final long loadedNanos)
+        {
+            this.id = id;
+            this.element = element;
+            this.loadedNanos = loadedNanos;
+        }
+    }
+}
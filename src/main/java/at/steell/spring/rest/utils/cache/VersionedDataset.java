@@ -0,0 +1,160 @@
+package at.steell.spring.rest.utils.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A retained dataset of response elements by identifier together with their versions (e.g. ETags or revision
+ * numbers), refreshed incrementally: once an element is known, it is only requested conditionally on its version, and
+ * only changed elements are merged into the dataset. So the cost of refreshing a large reference dataset scales with
+ * the rate of change instead of the size of the dataset.
+ *
+ * @param <ID> the identifier type
+ * @param <ELEMENT> the element type
+ */
+public class VersionedDataset<ID extends Serializable & Comparable<ID>, ELEMENT extends Serializable>
+{
+    private final Function<ELEMENT, ID> idFunction;
+    private final Function<ELEMENT, String> versionFunction;
+    private final ConcurrentMap<ID, Entry<ELEMENT>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the dataset
+     *
+     * @param idFunction the function deriving the identifier of an element
+     * @param versionFunction the function deriving the version of an element, may return <code>null</code> for an
+     *     element without a version
+     */
+    public VersionedDataset(final Function<ELEMENT, ID> idFunction, final Function<ELEMENT, String> versionFunction)
+    {
+        this.idFunction = idFunction;
+        this.versionFunction = versionFunction;
+    }
+
+    /**
+     * Looks up the versions of the given identifiers
+     *
+     * @param ids the identifiers to look up
+     * @return the version by identifier of the known identifiers, unknown identifiers and identifiers retained without
+     *     a version (e.g. an element without an ETag) are omitted, so they are requested unconditionally
+     */
+    public Map<ID, String> versions(final Collection<ID> ids)
+    {
+        final Map<ID, String> versions = new HashMap<>();
+        for (final ID id : ids)
+        {
+            final Entry<ELEMENT> entry = entries.get(id);
+            if (entry != null && entry.version != null)
+            {
+                versions.put(id, entry.version);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Looks up the elements of the given identifiers
+     *
+     * @param ids the identifiers to look up
+     * @return the elements of the known identifiers
+     */
+    public List<ELEMENT> get(final Collection<ID> ids)
+    {
+        final List<ELEMENT> elements = new ArrayList<>(ids.size());
+        for (final ID id : ids)
+        {
+            final Entry<ELEMENT> entry = entries.get(id);
+            if (entry != null)
+            {
+                elements.add(entry.element);
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Retains the given elements fetched unconditionally, identifiers requested but not answered are removed
+     *
+     * @param requested the identifiers requested
+     * @param elements the elements answered
+     */
+    public void put(final Collection<ID> requested, final Collection<ELEMENT> elements)
+    {
+        final Set<ID> answered = new HashSet<>();
+        for (final ELEMENT element : elements)
+        {
+            answered.add(retain(element));
+        }
+        for (final ID id : requested)
+        {
+            if (!answered.contains(id))
+            {
+                entries.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Merges the given changes answered to a conditional request
+     *
+     * @param changed the elements changed since their known version
+     * @param removed the identifiers of the removed elements
+     */
+    public void merge(final Collection<ELEMENT> changed, final Collection<ID> removed)
+    {
+        changed.forEach(this::retain);
+        removed.forEach(entries::remove);
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * @return the amount of elements retained
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public Function<ELEMENT, ID> getIdFunction()
+    {
+        return idFunction;
+    }
+
+    private ID retain(final ELEMENT element)
+    {
+        final ID id = idFunction.apply(element);
+        entries.put(id, new Entry<>(element, versionFunction.apply(element)));
+        return id;
+    }
+
+    /**
+     * A retained element
+     */
+    private static final class Entry<ELEMENT>
+    {
+        private final ELEMENT element;
+        private final String version;
+
+        private Entry(final ELEMENT element, final String version)
+        {
+            this.element = element;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package at.steell.spring.rest.utils.dto;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The request object intended to query the instances of the given identifier values changed since the given versions
+ * (e.g. ETags or revision numbers). Only instances whose version differs from the given one are expected in the
+ * {@link ConditionalResponse}, identifiers no longer known are expected as removed. The versions do not fit into an
+ * URL, so the request is intended to be sent in the request body.
+ *
+ * @param <T> The concrete type of the identifiers
+ */
+public final class ConditionalQueryRequest<T extends Serializable & Comparable<T>> extends AbstractRequest
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Map<T, String> versions = new HashMap<>();
+
+    /**
+     * Default constructor required for JSON marshaling
+     */
+    public ConditionalQueryRequest()
+    {
+        super();
+    }
+
+    /**
+     * @param versions The {@link Map} of the known version by identifier to query for
+     */
+    public ConditionalQueryRequest(final Map<T, String> versions)
+    {
+        setVersions(versions);
+    }
+
+    /**
+     * @return The known version by identifier to query for
+     */
+    public Map<T, String> getVersions()
+    {
+        return Collections.unmodifiableMap(versions);
+    }
+
+    /**
+     * @param versions The {@link Map} of the known version by identifier
+     */
+    public void setVersions(final Map<T, String> versions)
+    {
+        this.versions.clear();
+        if (versions != null)
+        {
+            this.versions.putAll(versions);
+        }
+    }
+
+    /**
+     * @return The {@link Set} of identifiers to query for
+     */
+    public Set<T> getIds()
+    {
+        return Collections.unmodifiableSet(versions.keySet());
+    }
+
+    /**
+     * @return Indicator whether the request contains any identifiers to query for
+     */
+    public boolean isEmpty()
+    {
+        return versions.isEmpty();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return versions.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (obj == null)
+        {
+            return false;
+        }
+        if (getClass() != obj.getClass())
+        {
+            return false;
+        }
+        final ConditionalQueryRequest<?> other = (ConditionalQueryRequest<?>) obj;
+        return versions.equals(other.versions);
+    }
+}
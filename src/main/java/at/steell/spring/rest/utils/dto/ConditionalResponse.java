@@ -0,0 +1,64 @@
+package at.steell.spring.rest.utils.dto;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * The response to a {@link ConditionalQueryRequest}, delivering the elements changed since the requested versions and
+ * the identifiers of the elements removed since. Requested identifiers neither answered nor removed are unchanged.
+ *
+ * @param <T> The concrete Type the response delivers
+ * @param <ID> The concrete type of the identifiers
+ */
+public class ConditionalResponse<T extends Serializable, ID extends Serializable> extends TypedResponse<T>
+{
+    private static final long serialVersionUID = 1L;
+    private Set<ID> removedIds = new HashSet<>();
+
+    /**
+     * @return The {@link Set} of identifiers of removed elements
+     */
+    public Set<ID> getRemovedIds()
+    {
+        return Collections.unmodifiableSet(removedIds);
+    }
+
+    /**
+     * Sets the new {@link Set} of identifiers of removed elements.
+     *
+     * @param newRemovedIds The {@link Set} of identifiers
+     * @return The {@link ConditionalResponse} to support a fluent API
+     */
+    public ConditionalResponse<T, ID> setRemovedIds(final Set<ID> newRemovedIds)
+    {
+        this.removedIds.clear();
+        if (newRemovedIds != null)
+        {
+            this.removedIds.addAll(newRemovedIds);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        if (obj instanceof ConditionalResponse)
+        {
+            final ConditionalResponse<?, ?> other = (ConditionalResponse<?, ?>) obj;
+            return new EqualsBuilder().append(getElements(), other.getElements())
+                .append(getRemovedIds(), other.getRemovedIds()).isEquals();
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return new HashCodeBuilder().append(getElements()).append(getRemovedIds()).toHashCode();
+    }
+}
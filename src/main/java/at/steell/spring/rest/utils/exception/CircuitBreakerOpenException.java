@@ -0,0 +1,20 @@
+package at.steell.spring.rest.utils.exception;
+
+import at.steell.spring.rest.utils.invoker.CircuitBreaker;
+
+/**
+ * Thrown by an invoker short-circuiting an invocation, because its {@link CircuitBreaker} is open and no fallback
+ * response is given.
+ */
+public class CircuitBreakerOpenException extends RuntimeException
+{
+    private static final long serialVersionUID = 1;
+
+    /**
+     * @param message The message to be set for the exception
+     */
+    public CircuitBreakerOpenException(String message)
+    {
+        super(message);
+    }
+}
@@ -1,23 +1,45 @@
 package at.steell.spring.rest.utils.invoker;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
-import at.steell.spring.rest.utils.TypedResponseCollector;
+import at.steell.spring.rest.utils.SpillingResponse;
+import at.steell.spring.rest.utils.cache.NegativeCache;
+import at.steell.spring.rest.utils.cache.RefreshAheadCache;
+import at.steell.spring.rest.utils.cache.VersionedDataset;
+import at.steell.spring.rest.utils.dto.ConditionalQueryRequest;
+import at.steell.spring.rest.utils.dto.ConditionalResponse;
 import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
 import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.exception.CircuitBreakerOpenException;
 import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
+import at.steell.spring.rest.utils.thread.ContextPropagators;
+import at.steell.spring.rest.utils.thread.ContextSnapshot;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.Priority;
 
 /**
  * Abstract base class for all client invoker implementation. Client invokers are intended to interact with the feign
@@ -30,9 +52,28 @@ import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
  */
 public abstract class AbstractClientInvoker<CLIENT>
 {
+    /** the function name used for invocations without an explicit function name */
+    public static final String DEFAULT_FUNCTION_NAME = "invoke";
+
     private static final Logger LOG = LoggerFactory.getLogger(AbstractClientInvoker.class);
+
     private final CLIENT client;
     private final ContextAwareExecutor executor;
+    private final LatencyTracker latencyTracker = new LatencyTracker();
+    private final AtomicLong largeInvocations = new AtomicLong();
+    private volatile Budgeted<HedgingPolicy> hedging;
+    private volatile Budgeted<RetryPolicy> retry;
+    private volatile AdaptiveConcurrencyLimit concurrencyLimit;
+    private volatile CircuitBreaker circuitBreaker;
+    private volatile RateLimiter rateLimiter;
+    private volatile NegativeCache negativeCache;
+    private volatile InvocationListener[] invocationListeners = {};
+    private volatile Priority priority;
+    private volatile boolean requestMemoization;
+    private volatile boolean failFast;
+    private volatile TransportPolicy transportPolicy = new TransportPolicy();
+    private volatile LatencyTracker queryCost = new LatencyTracker();
+    private volatile LatencyTracker bodyCost = new LatencyTracker();
 
     /**
      * Constructor
@@ -49,7 +90,9 @@ public abstract class AbstractClientInvoker<CLIENT>
     /**
      * Protected function to create parallel requests by splitting the given request parameters to a suitable size for
      * the given degree of parallelism. In case degree of parallelism is higher than the amount of identifiers
-     * requested, that degree is decreased to the amount of identifiers.
+     * requested, that degree is decreased to the amount of identifiers. In case a {@link HedgingPolicy} is set, slow
+     * chunks are hedged, in case a {@link RetryPolicy} is set, failed chunks are retried. In case an
+     * {@link AdaptiveConcurrencyLimit} is set, the chunks in flight against the client are bounded by that limit.
      *
      * @param function the clients function to be invoked in parallel, capable of taking a get resource or get
      *     resources
@@ -59,40 +102,734 @@ public abstract class AbstractClientInvoker<CLIENT>
      * @param <RESPONSE> the response type
      * @return the collected {@link TypedResponse}
      */
-    @SuppressWarnings("squid:S2142") //InterruptedException should not be ignored: will be handled differently here
     protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE> invoke(
         final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
         final IdentifierQueryRequest<ID> request)
     {
-        final Locale locale = LocaleContextHolder.getLocale();
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return invoke(null, function, request);
+    }
+
+    /**
+     * Protected function to create parallel requests, see {@link #invoke(Function, IdentifierQueryRequest)}. The given
+     * function name is used to notify {@link InvocationListener} instances.
+     *
+     * @param functionName the name of the invoked client function, may be <code>null</code>
+     * @param function the clients function to be invoked in parallel
+     * @param request the request detail that should be split and processed in parallel
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the collected {@link TypedResponse}
+     */
+    protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE> invoke(
+        final String functionName,
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request)
+    {
+        return invoke(function, request, new InvocationOptions<RESPONSE, ID>().withFunctionName(functionName));
+    }
+
+    /**
+     * Protected function to create parallel requests, see {@link #invoke(Function, IdentifierQueryRequest)}, applying
+     * the given {@link InvocationOptions}:
+     * <ul>
+     * <li>In case the {@link CircuitBreaker} of this invoker is open, the fallback is returned without requesting any
+     * chunk.</li>
+     * <li>In case an identifier function is given and a {@link NegativeCache} is set, identifiers known to be absent
+     * are dropped before splitting the request, and requested identifiers missing in the response are remembered as
+     * absent. In case request scoped memoization is enabled as well, only identifiers not requested before within the
+     * current {@link ExecutionContext} are fetched.</li>
+     * <li>In case a body function is given, the {@link TransportPolicy} of this invoker decides by the amount of
+     * identifiers and the measured cost of both transports whether the request is split into URL sized chunks for the
+     * given function, or into few large chunks for the body function.</li>
+     * </ul>
+     *
+     * @param function the clients function to be invoked in parallel, taking the identifiers in the URL
+     * @param request the request detail that should be split and processed in parallel
+     * @param options the {@link InvocationOptions} of the invocation
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the collected {@link TypedResponse}
+     */
+    protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE> invoke(
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request,
+        final InvocationOptions<RESPONSE, ID> options)
+    {
+        return execute(function, request, options);
+    }
 
-        final List<ContextAwareCallable<RESPONSE, ID>> callables =
-            IdentifierQueryRequestSplitter.split(request).stream()
-                .map(req -> {
-                    LOG.debug("prepare context aware callable");
-                    return new ContextAwareCallable<>(function, req, locale, authentication);
-                })
-                .collect(Collectors.toList());
+    /**
+     * Protected function to create parallel requests for very large results, see
+     * {@link #invoke(String, Function, IdentifierQueryRequest)}. The response of every chunk is added to the given
+     * {@link SpillingResponse} as soon as the chunk is answered, so the invocation does not hold the whole result in
+     * memory. In case the invocation fails, the target holds the responses of the chunks answered before.
+     *
+     * @param functionName the name of the invoked client function, may be <code>null</code>
+     * @param function the clients function to be invoked in parallel
+     * @param request the request detail that should be split and processed in parallel
+     * @param target the {@link SpillingResponse} to add the chunk responses to
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the given target
+     */
+    protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> SpillingResponse<RESPONSE>
+        invokeSpilling(
+            final String functionName,
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+            final IdentifierQueryRequest<ID> request,
+            final SpillingResponse<RESPONSE> target)
+    {
+        execute(function, request,
+            new InvocationOptions<RESPONSE, ID>().withFunctionName(functionName).withSink(target::addAll));
+        return target;
+    }
+
+    /**
+     * Creates parallel requests, see {@link #invoke(Function, IdentifierQueryRequest, InvocationOptions)}, streaming
+     * the chunk responses to the sink of the given options if any
+     *
+     * @param queryFunction the clients function taking the identifiers in the URL, may be <code>null</code> to always
+     *     use the body function of the given options
+     */
+    @SuppressWarnings("squid:S2142") //InterruptedException should not be ignored: will be handled differently here
+    private <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE> execute(
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> queryFunction,
+        final IdentifierQueryRequest<ID> request,
+        final InvocationOptions<RESPONSE, ID> options)
+    {
+        final String functionName = options.getFunctionName();
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> bodyFunction = options.getBodyFunction();
+        final Function<RESPONSE, ID> idFunction = options.getIdFunction();
+        final Supplier<TypedResponse<RESPONSE>> fallback = options.getFallback();
+        final Consumer<TypedResponse<RESPONSE>> sink = options.getSink();
+        final String clientName = getClass().getSimpleName();
+        final ExecutionContext executionContext = ExecutionContext.start();
+        final InvocationTrace trace = executionContext.startInvocation(clientName, request.getIds().size());
+        invocationStarted(clientName, functionName == null ? DEFAULT_FUNCTION_NAME : functionName, trace);
 
+        Throwable failure = null;
         try
         {
-            final TypedResponse<RESPONSE> response = executor.invokeAll(callables).stream()
-                .map(this::getResponse).collect(new TypedResponseCollector<RESPONSE>());
+            final ConcurrentMap<ID, Optional<RESPONSE>> memo =
+                idFunction == null || !requestMemoization || !executionContext.isScoped() ? null
+                    : executionContext.getMemo(Arrays.asList(this, functionName, getPrincipalName()));
+            final TypedResponse<RESPONSE> memoized = new TypedResponse<>();
+            final IdentifierQueryRequest<ID> unseen = memo == null ? request : recall(memo, request, memoized);
+            final NegativeCache cache = idFunction == null ? null : negativeCache;
+            final Object scope = cache == null ? null : Arrays.asList(functionName, getPrincipalName());
+            final IdentifierQueryRequest<ID> filtered = cache == null ? unseen : cache.filter(scope, unseen);
+            if (filtered.isEmpty() && !request.isEmpty())
+            {
+                return memoized;
+            }
+
+            final CircuitBreaker breaker = circuitBreaker;
+            if (breaker != null && !breaker.tryAcquirePermission())
+            {
+                if (fallback != null)
+                {
+                    return fallback.get();
+                }
+                throw new CircuitBreakerOpenException("circuit breaker of " + clientName + " is open");
+            }
+            final TransportPolicy transport = bodyFunction == null ? null : transportPolicy;
+            final int idCount = filtered.getIds().size();
+            final boolean large = queryFunction != null && transport != null && transport.isLarge(idCount);
+            final boolean body = queryFunction == null
+                || large && transport.useBody(idCount, queryCost, bodyCost, largeInvocations.getAndIncrement());
+            final FanOut fanOut = createFanOut(breaker);
+            final FanOut.Part<RESPONSE> part = body
+                ? fanOut.add(bodyFunction, IdentifierQueryRequestSplitter.split(filtered, transport.getMaxBodyIds()),
+                    trace)
+                : fanOut.add(queryFunction, IdentifierQueryRequestSplitter.split(filtered), trace);
+            if (sink != null)
+            {
+                part.streamingTo(sink);
+            }
+            final long started = System.nanoTime();
+            fanOut.execute();
+            if (large)
+            {
+                (body ? bodyCost : queryCost).record((System.nanoTime() - started) / idCount);
+            }
+            final TypedResponse<RESPONSE> response = part.collect();
+            if (cache != null)
+            {
+                rememberAbsent(cache, scope, filtered, response, idFunction);
+            }
+            if (memo != null)
+            {
+                memorize(memo, filtered, response, idFunction);
+                memoized.getElements().forEach(response::add);
+            }
             return response;
         }
         catch (final InterruptedException e)
         {
-            throw new IllegalStateException(e);
+            failure = e;
+            throw interrupted(e);
         }
         catch (final IllegalStateException e)
         {
-            if (e.getCause() instanceof RuntimeException)
+            failure = failureOf(e);
+            throw (RuntimeException) failure;
+        }
+        catch (final RuntimeException e)
+        {
+            failure = e;
+            throw e;
+        }
+        finally
+        {
+            trace.end();
+            invocationCompleted(clientName, functionName == null ? DEFAULT_FUNCTION_NAME : functionName, trace,
+                failure);
+        }
+    }
+
+    /**
+     * Protected function to start a {@link ScatterGather}, which dispatches the chunks of multiple client functions
+     * as a single fan out, so lookups of different response types wait for the slowest chunk only once.
+     *
+     * @return the started {@link ScatterGather}
+     */
+    protected ScatterGather scatter()
+    {
+        return new ScatterGather(this);
+    }
+
+    /**
+     * Protected function to look up elements served by the given {@link RefreshAheadCache}. Cached elements are
+     * returned immediately, even if stale. Stale elements are refreshed by a background invocation on the executor of
+     * this invoker, only missing or hard expired elements are requested before returning, see
+     * {@link #invoke(Function, IdentifierQueryRequest, InvocationOptions)}.
+     *
+     * @param functionName the name of the invoked client function, may be <code>null</code>
+     * @param function the clients function to be invoked in parallel
+     * @param request the request detail that should be served from the cache or processed in parallel
+     * @param idFunction the function deriving the identifier of a response element
+     * @param cache the {@link RefreshAheadCache} of the function
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the cached and collected {@link TypedResponse}
+     */
+    protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE>
+        invokeCached(
+            final String functionName,
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+            final IdentifierQueryRequest<ID> request,
+            final Function<RESPONSE, ID> idFunction,
+            final RefreshAheadCache<ID, RESPONSE> cache)
+    {
+        final RefreshAheadCache.Lookup<ID, RESPONSE> lookup = cache.lookup(request.getIds());
+        if (!lookup.getStale().isEmpty())
+        {
+            refresh(functionName, function, lookup.getStale(), idFunction, cache);
+        }
+
+        final TypedResponse<RESPONSE> response = new TypedResponse<>();
+        lookup.getHits().forEach(response::add);
+        if (!lookup.getMissing().isEmpty())
+        {
+            final IdentifierQueryRequest<ID> missing = new IdentifierQueryRequest<>(lookup.getMissing());
+            final TypedResponse<RESPONSE> fetched = invoke(function, missing,
+                new InvocationOptions<RESPONSE, ID>().withFunctionName(functionName).withIdFunction(idFunction));
+            cache.put(missing.getIds(), fetched.getElements(), idFunction);
+            fetched.getElements().forEach(response::add);
+        }
+        return response;
+    }
+
+    /**
+     * Protected function to look up elements retained by the given {@link VersionedDataset}. Identifiers unknown to
+     * the dataset, or retained without a version, are requested by the given function. Known identifiers are requested
+     * by the conditional function along with their retained versions, split into chunks of at most
+     * {@link TransportPolicy#getMaxBodyIds()} identifiers, as the versions are sent in the request body. Only the
+     * changed elements answered are merged into the dataset, so the cost of a refresh scales with the rate of change
+     * instead of the amount of identifiers.
+     *
+     * @param functionName the name of the invoked client function, may be <code>null</code>
+     * @param function the clients function to request unknown identifiers
+     * @param conditionalFunction the clients function to request the elements changed since the given versions
+     * @param request the request detail that should be refreshed
+     * @param dataset the {@link VersionedDataset} retaining the elements of the function
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the current elements of the requested identifiers
+     */
+    protected <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> TypedResponse<RESPONSE>
+        invokeIncremental(
+            final String functionName,
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+            final Function<ConditionalQueryRequest<ID>, ConditionalResponse<RESPONSE, ID>> conditionalFunction,
+            final IdentifierQueryRequest<ID> request,
+            final VersionedDataset<ID, RESPONSE> dataset)
+    {
+        final Map<ID, String> versions = dataset.versions(request.getIds());
+        if (!versions.isEmpty())
+        {
+            final Set<ID> removed = ConcurrentHashMap.newKeySet();
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> conditional = chunk ->
+            {
+                final Map<ID, String> chunkVersions = new HashMap<>();
+                for (final ID id : chunk.getIds())
+                {
+                    chunkVersions.put(id, versions.get(id));
+                }
+                final ConditionalQueryRequest<ID> conditionalRequest = new ConditionalQueryRequest<>(chunkVersions);
+                final ConditionalResponse<RESPONSE, ID> changes = conditionalFunction.apply(conditionalRequest);
+                removed.addAll(changes.getRemovedIds());
+                return changes;
+            };
+            final TypedResponse<RESPONSE> changed = execute(null, new IdentifierQueryRequest<>(versions.keySet()),
+                new InvocationOptions<RESPONSE, ID>().withFunctionName(functionName).withBodyFunction(conditional));
+            dataset.merge(changed.getElements(), removed);
+        }
+
+        final List<ID> unknown = request.getIds().stream().filter(id -> !versions.containsKey(id))
+            .collect(Collectors.toList());
+        if (!unknown.isEmpty())
+        {
+            final IdentifierQueryRequest<ID> missing = new IdentifierQueryRequest<>(unknown);
+            final TypedResponse<RESPONSE> fetched = invoke(function, missing, new InvocationOptions<RESPONSE, ID>()
+                .withFunctionName(functionName).withIdFunction(dataset.getIdFunction()));
+            dataset.put(missing.getIds(), fetched.getElements());
+        }
+
+        final TypedResponse<RESPONSE> response = new TypedResponse<>();
+        dataset.get(request.getIds()).forEach(response::add);
+        return response;
+    }
+
+    /**
+     * Refreshes the given stale identifiers by an invocation running in the background. The refresh runs within a
+     * fresh {@link ExecutionContext} of {@link Priority#BATCH} and bypasses request scoped memoization as well as the
+     * negative cache, so it neither answers from nor writes back state of the request triggering it.
+     */
+    private <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> void refresh(
+        final String functionName,
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final List<ID> stale,
+        final Function<RESPONSE, ID> idFunction,
+        final RefreshAheadCache<ID, RESPONSE> cache)
+    {
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> refresh = ids ->
+        {
+            final TypedResponse<RESPONSE> refreshed = invoke(functionName, function, ids);
+            cache.put(ids.getIds(), refreshed.getElements(), idFunction);
+            return refreshed;
+        };
+        final ExecutionContext context = new ExecutionContext();
+        context.setPriority(Priority.BATCH);
+        try
+        {
+            executor.submit(new ContextAwareCallable<>(refresh, new IdentifierQueryRequest<>(stale),
+                ContextSnapshot.capture().with(ContextPropagators.EXECUTION_CONTEXT, context), null, Priority.BATCH),
+                task ->
+                {
+                    cache.refreshed(stale);
+                    if (!task.isCancelled() && task.getStartNanos() != 0)
+                    {
+                        logRefreshFailure(task);
+                    }
+                });
+        }
+        catch (final RejectedExecutionException e)
+        {
+            cache.refreshed(stale);
+            LOG.warn("refresh of {} stale elements rejected", stale.size());
+        }
+    }
+
+    private static void logRefreshFailure(final Future<?> task)
+    {
+        try
+        {
+            task.get();
+        }
+        catch (final ExecutionException e)
+        {
+            LOG.warn("refresh of stale elements failed", e.getCause());
+        }
+        catch (final InterruptedException e)
+        {
+            /* not possible for a completed task */
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds the memorized elements of the given request to the given response
+     *
+     * @return the request of the identifiers not memorized yet
+     */
+    private static <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> IdentifierQueryRequest<ID>
+        recall(
+            final Map<ID, Optional<RESPONSE>> memo,
+            final IdentifierQueryRequest<ID> request,
+            final TypedResponse<RESPONSE> memoized)
+    {
+        final List<ID> unseen = new ArrayList<>();
+        for (final ID id : request.getIds())
+        {
+            final Optional<RESPONSE> element = memo.get(id);
+            if (element == null)
             {
-                throw (RuntimeException) e.getCause();
+                unseen.add(id);
             }
-            throw e;
+            else
+            {
+                element.ifPresent(memoized::add);
+            }
+        }
+        return unseen.size() == request.getIds().size() ? request : new IdentifierQueryRequest<>(unseen);
+    }
+
+    /**
+     * @return the name of the principal authenticated in the current thread, <code>null</code> if unauthenticated
+     */
+    private static String getPrincipalName()
+    {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> void memorize(
+        final Map<ID, Optional<RESPONSE>> memo,
+        final IdentifierQueryRequest<ID> request,
+        final TypedResponse<RESPONSE> response,
+        final Function<RESPONSE, ID> idFunction)
+    {
+        request.getIds().forEach(id -> memo.put(id, Optional.empty()));
+        response.getElements().forEach(element -> memo.put(idFunction.apply(element), Optional.of(element)));
+    }
+
+    private static <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> void rememberAbsent(
+        final NegativeCache cache,
+        final Object scope,
+        final IdentifierQueryRequest<ID> request,
+        final TypedResponse<RESPONSE> response,
+        final Function<RESPONSE, ID> idFunction)
+    {
+        final Set<ID> found = response.getElements().stream().map(idFunction).collect(Collectors.toSet());
+        for (final ID id : request.getIds())
+        {
+            if (!found.contains(id))
+            {
+                cache.addAbsent(scope, id);
+            }
+        }
+    }
+
+    /**
+     * Determines the exception thrown for a failed {@link FanOut}. In fail-fast mode the original runtime exception of
+     * the failed chunk is thrown, otherwise runtime exceptions are only unwrapped if thrown by the fan out itself.
+     */
+    RuntimeException failureOf(final IllegalStateException e)
+    {
+        final Throwable cause = e.getCause();
+        if (failFast && cause instanceof ExecutionException && cause.getCause() instanceof RuntimeException)
+        {
+            return (RuntimeException) cause.getCause();
+        }
+        return cause instanceof RuntimeException ? (RuntimeException) cause : e;
+    }
+
+    /**
+     * Determines the exception thrown for an interrupted invocation, restoring the interrupt status in fail-fast mode
+     */
+    RuntimeException interrupted(final InterruptedException e)
+    {
+        if (failFast)
+        {
+            Thread.currentThread().interrupt();
         }
+        return new IllegalStateException(e);
+    }
+
+    /**
+     * Notifies all {@link InvocationListener} instances about a started invocation
+     */
+    void invocationStarted(final String clientName, final String functionName, final InvocationTrace trace)
+    {
+        final InvocationListener[] listeners = invocationListeners;
+        for (final InvocationListener listener : listeners)
+        {
+            listener.invocationStarted(clientName, functionName, trace);
+        }
+    }
+
+    /**
+     * Notifies all {@link InvocationListener} instances about a completed invocation
+     */
+    void invocationCompleted(final String clientName, final String functionName, final InvocationTrace trace,
+        final Throwable failure)
+    {
+        final InvocationListener[] listeners = invocationListeners;
+        for (final InvocationListener listener : listeners)
+        {
+            listener.invocationCompleted(clientName, functionName, trace, failure);
+        }
+    }
+
+    /**
+     * Creates a {@link FanOut} applying the policies of this invoker
+     */
+    FanOut createFanOut(final CircuitBreaker breaker)
+    {
+        final FanOut fanOut = new FanOut(executor, ContextSnapshot.capture(), latencyTracker);
+        final Budgeted<HedgingPolicy> hedged = hedging;
+        if (hedged != null)
+        {
+            fanOut.hedging(hedged.policy.getHedgeDelayNanos(latencyTracker), hedged.budget);
+        }
+        final Budgeted<RetryPolicy> retrying = retry;
+        if (retrying != null)
+        {
+            fanOut.retrying(retrying.policy, retrying.budget);
+        }
+        final AdaptiveConcurrencyLimit limit = concurrencyLimit;
+        if (limit != null)
+        {
+            fanOut.limiting(limit);
+        }
+        if (breaker != null)
+        {
+            fanOut.breaking(breaker);
+        }
+        final RateLimiter limiter = rateLimiter;
+        if (limiter != null)
+        {
+            fanOut.pacing(limiter);
+        }
+        final Priority fixed = priority;
+        if (fixed != null)
+        {
+            fanOut.prioritizing(fixed);
+        }
+        if (failFast)
+        {
+            fanOut.failingFast();
+        }
+        return fanOut;
+    }
+
+    /**
+     * Enables hedged chunk requests. Chunks running longer than a tracked percentile of recent chunk latency of this
+     * client are requested a second time, the first answer wins and the other request is cancelled.
+     *
+     * @param hedgingPolicy the {@link HedgingPolicy} to apply, <code>null</code> disables hedging
+     */
+    public void setHedgingPolicy(final HedgingPolicy hedgingPolicy)
+    {
+        this.hedging = hedgingPolicy == null ? null : new Budgeted<>(hedgingPolicy, hedgingPolicy.createBudget());
+    }
+
+    /**
+     * Enables chunk level retries. Only failed chunks are requested again, the responses of retried chunks are merged
+     * into the already collected ones.
+     *
+     * @param retryPolicy the {@link RetryPolicy} to apply, <code>null</code> disables retries
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy)
+    {
+        this.retry = retryPolicy == null ? null : new Budgeted<>(retryPolicy, retryPolicy.createBudget());
+    }
+
+    /**
+     * Sets the adaptive limit of chunks concurrently in flight against the client of this invoker. The limit is shared
+     * by all invocations of this invoker.
+     *
+     * @param concurrencyLimit the {@link AdaptiveConcurrencyLimit} to apply, <code>null</code> disables limiting
+     */
+    public void setConcurrencyLimit(final AdaptiveConcurrencyLimit concurrencyLimit)
+    {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * @return the {@link AdaptiveConcurrencyLimit} of the client, or <code>null</code> if not limited
+     */
+    public AdaptiveConcurrencyLimit getConcurrencyLimit()
+    {
+        return concurrencyLimit;
+    }
+
+    /**
+     * Sets the circuit breaker of the client of this invoker. The outcomes of the chunks of all invocations are
+     * recorded, while the breaker is open invocations are short-circuited.
+     *
+     * @param circuitBreaker the {@link CircuitBreaker} to apply, <code>null</code> disables it
+     */
+    public void setCircuitBreaker(final CircuitBreaker circuitBreaker)
+    {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @return the {@link CircuitBreaker} of the client, or <code>null</code> if not set
+     */
+    public CircuitBreaker getCircuitBreaker()
+    {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sets the rate limiter of the client of this invoker. Every chunk request, including hedged and retried ones, of
+     * all invocations of this invoker takes a token, chunks are paced until a token is available.
+     *
+     * @param rateLimiter the {@link RateLimiter} to apply, <code>null</code> disables rate limiting
+     */
+    public void setRateLimiter(final RateLimiter rateLimiter)
+    {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * @return the {@link RateLimiter} of the client, or <code>null</code> if not set
+     */
+    public RateLimiter getRateLimiter()
+    {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the priority the chunks of all invocations of this invoker are queued with, e.g. {@link Priority#BATCH}
+     * for an invoker used by background jobs only
+     *
+     * @param priority the {@link Priority} to apply, <code>null</code> to take the priority of the current
+     *     {@link ExecutionContext}
+     */
+    public void setPriority(final Priority priority)
+    {
+        this.priority = priority;
+    }
+
+    /**
+     * @return the {@link Priority} of the invoker, or <code>null</code> if taken from the current context
+     */
+    public Priority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * Enables failing fast. The first chunk failing finally cancels and interrupts the other chunks of the invocation,
+     * chunks not submitted yet are never requested, and the original runtime exception of the failed chunk is thrown
+     * instead of an {@link IllegalStateException} wrapping it. In case the invoking thread gets interrupted, its
+     * interrupt status is restored.
+     *
+     * @param failFast <code>true</code> to enable failing fast
+     */
+    public void setFailFast(final boolean failFast)
+    {
+        this.failFast = failFast;
+    }
+
+    /**
+     * @return <code>true</code> in case failing fast is enabled
+     */
+    public boolean isFailFast()
+    {
+        return failFast;
+    }
+
+    /**
+     * Enables memoizing the elements fetched within the current {@link ExecutionContext}, so repeated invocations of
+     * the same function during a request only fetch identifiers not requested before. Only invocations within a scope
+     * opened via {@link ExecutionContext#open()} are memoized, the memo is discarded as soon as the scope is closed at
+     * the end of the request. Memos are kept per authenticated principal, and only invocations given a function
+     * deriving the identifier of a response element are memoized.
+     *
+     * @param requestMemoization <code>true</code> to enable request scoped memoization
+     */
+    public void setRequestMemoization(final boolean requestMemoization)
+    {
+        this.requestMemoization = requestMemoization;
+    }
+
+    /**
+     * @return <code>true</code> in case request scoped memoization is enabled
+     */
+    public boolean isRequestMemoization()
+    {
+        return requestMemoization;
+    }
+
+    /**
+     * Sets the policy choosing the transport of client functions offering both, a query and a body function. The
+     * measured costs of both transports are reset.
+     *
+     * @param transportPolicy the {@link TransportPolicy} to apply, must not be <code>null</code>
+     */
+    public void setTransportPolicy(final TransportPolicy transportPolicy)
+    {
+        if (transportPolicy == null)
+        {
+            throw new IllegalArgumentException("transportPolicy must not be null");
+        }
+        this.queryCost = new LatencyTracker();
+        this.bodyCost = new LatencyTracker();
+        this.transportPolicy = transportPolicy;
+    }
+
+    /**
+     * @return the {@link TransportPolicy} of the client
+     */
+    public TransportPolicy getTransportPolicy()
+    {
+        return transportPolicy;
+    }
+
+    /**
+     * Sets the cache remembering identifiers absent in the responses of the client of this invoker. Only invocations
+     * given a function deriving the identifier of a response element use the cache. Identifiers are remembered per
+     * function name and principal, like memoized elements.
+     *
+     * @param negativeCache the {@link NegativeCache} to apply, <code>null</code> disables negative caching
+     */
+    public void setNegativeCache(final NegativeCache negativeCache)
+    {
+        this.negativeCache = negativeCache;
+    }
+
+    /**
+     * @return the {@link NegativeCache} of the client, or <code>null</code> if not set
+     */
+    public NegativeCache getNegativeCache()
+    {
+        return negativeCache;
+    }
+
+    /**
+     * Adds a listener notified about every completed invocation of this invoker
+     *
+     * @param listener the {@link InvocationListener} to add
+     */
+    public synchronized void addInvocationListener(final InvocationListener listener)
+    {
+        final InvocationListener[] listeners = Arrays.copyOf(invocationListeners, invocationListeners.length + 1);
+        listeners[invocationListeners.length] = listener;
+        invocationListeners = listeners;
+    }
+
+    /**
+     * Removes the given listener
+     *
+     * @param listener the {@link InvocationListener} to remove
+     */
+    public synchronized void removeInvocationListener(final InvocationListener listener)
+    {
+        invocationListeners = Arrays.stream(invocationListeners).filter(registered -> registered != listener)
+            .toArray(InvocationListener[]::new);
+    }
+
+    /**
+     * @return the {@link LatencyTracker} recording the chunk latency of this client
+     */
+    public LatencyTracker getLatencyTracker()
+    {
+        return latencyTracker;
     }
 
     /**
@@ -105,16 +842,20 @@ public abstract class AbstractClientInvoker<CLIENT>
         return client;
     }
 
-    private <RESPONSE extends Serializable> TypedResponse<RESPONSE> getResponse(
-        final Future<TypedResponse<RESPONSE>> future)
+    /**
+     * A policy together with its budget, so both are replaced atomically
+     *
+     * @param <POLICY> the policy type
+     */
+    private static final class Budgeted<POLICY>
     {
-        try
-        {
-            return future.get();
-        }
-        catch (final Throwable t)
+        private final POLICY policy;
+        private final RequestBudget budget;
+
+        private Budgeted(final POLICY policy, final RequestBudget budget)
         {
-            throw new IllegalStateException(t);
+            this.policy = policy;
+            this.budget = budget;
         }
     }
 }
@@ -0,0 +1,173 @@
+package at.steell.spring.rest.utils.invoker;
+
+/**
+ * An adaptive limit of the chunks concurrently in flight against a single client, following an AIMD (additive
+ * increase, multiplicative decrease) algorithm on the observed chunk round trip time. The lowest round trip time of a
+ * window of samples estimates the latency of the unloaded downstream. As long as chunks complete within a tolerance of
+ * that estimate, the limit grows by one per limit worth of samples. A failed chunk or a chunk exceeding the tolerance
+ * indicates queueing in the downstream and decreases the limit by the backoff ratio. The limit is decreased at most
+ * once per round trip: chunks sent before the last decrease do not decrease it again, so a burst of slow chunks
+ * caused by a single overload backs off once instead of collapsing the limit to the minimum.
+ * <p>
+ * The limit only grows while at least half of it is in use, so an idle client does not build up a limit it never
+ * proved to sustain.
+ */
+public class AdaptiveConcurrencyLimit
+{
+    /** the default initial limit */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    /** the default minimum limit */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    /** the default maximum limit */
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    /** the default ratio the limit is multiplied with on overload */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    /** the default tolerated ratio of the round trip time to the lowest round trip time */
+    public static final double DEFAULT_RTT_TOLERANCE = 2.0;
+    /** the amount of samples after which the lowest round trip time is estimated again */
+    public static final int MIN_RTT_WINDOW = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double rttTolerance;
+
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    /**
+     * Constructs the limit with default values
+     */
+    public AdaptiveConcurrencyLimit()
+    {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_BACKOFF_RATIO,
+            DEFAULT_RTT_TOLERANCE);
+    }
+
+    /**
+     * Constructs the limit
+     *
+     * @param initialLimit the limit to start with
+     * @param minLimit the minimum limit
+     * @param maxLimit the maximum limit
+     * @param backoffRatio the ratio the limit is multiplied with on overload, between <code>0</code> and
+     *     <code>1</code>
+     * @param rttTolerance the tolerated ratio of the round trip time to the lowest round trip time, at least
+     *     <code>1</code>
+     */
+    public AdaptiveConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit,
+        final double backoffRatio, final double rttTolerance)
+    {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit)
+        {
+            throw new IllegalArgumentException("limits have to be greater than 0 and minLimit <= initialLimit <= "
+                + "maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1)
+        {
+            throw new IllegalArgumentException("backoffRatio has to be between 0 and 1");
+        }
+        if (rttTolerance < 1)
+        {
+            throw new IllegalArgumentException("rttTolerance has to be at least 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.rttTolerance = rttTolerance;
+    }
+
+    /**
+     * Acquires a slot for a chunk, in case the limit is not reached
+     *
+     * @return <code>true</code> in case the chunk may be sent, otherwise <code>false</code>
+     */
+    public synchronized boolean tryAcquire()
+    {
+        if (inFlight < (int) limit)
+        {
+            inFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Acquires a slot for a chunk regardless of the limit, e.g. for a retry or to let an invocation progress
+     */
+    public synchronized void acquire()
+    {
+        inFlight++;
+    }
+
+    /**
+     * Releases the slot of a completed chunk and adapts the limit to the outcome
+     *
+     * @param rttNanos the round trip time of the chunk in nanoseconds, a negative value releases the slot without
+     *     adapting the limit, e.g. for a cancelled chunk
+     * @param dropped <code>true</code> in case the chunk failed
+     */
+    public synchronized void release(final long rttNanos, final boolean dropped)
+    {
+        final boolean utilized = inFlight >= limit / 2;
+        inFlight--;
+        if (rttNanos < 0)
+        {
+            return;
+        }
+
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        if (++windowSamples == MIN_RTT_WINDOW)
+        {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        if (dropped || rttNanos > minRttNanos * rttTolerance)
+        {
+            final long now = System.nanoTime();
+            if (!decreased || now - rttNanos - lastDecreaseNanos >= 0)
+            {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                decreased = true;
+                lastDecreaseNanos = now;
+            }
+        }
+        else if (utilized)
+        {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * @return the current limit of chunks in flight
+     */
+    public synchronized int getLimit()
+    {
+        return (int) limit;
+    }
+
+    /**
+     * @return the amount of chunks currently in flight
+     */
+    public synchronized int getInFlight()
+    {
+        return inFlight;
+    }
+
+    /**
+     * @return the lowest round trip time observed in nanoseconds, or {@link Long#MAX_VALUE} without samples
+     */
+    public synchronized long getMinRttNanos()
+    {
+        return minRttNanos;
+    }
+}
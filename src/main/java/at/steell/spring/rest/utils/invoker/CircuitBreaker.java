@@ -0,0 +1,223 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A circuit breaker protecting a client from invocations while its downstream is failing. The outcomes of the last
+ * chunks are kept in a sliding window, once the rate of failed or slow chunks exceeds its threshold, the breaker opens
+ * and {@link AbstractClientInvoker} short-circuits invocations without requesting any chunk. After the open duration
+ * the breaker turns half-open and permits a limited amount of probe invocations, their chunks decide whether the
+ * breaker closes again or opens for another period.
+ */
+public class CircuitBreaker
+{
+    /** the default rate of failed chunks opening the breaker */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    /** the default rate of slow chunks opening the breaker */
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8;
+    /** the default duration of a chunk to be considered slow in milliseconds */
+    public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 5000;
+    /** the default duration the breaker stays open in milliseconds */
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 10000;
+    /** the default size of the sliding window of chunk outcomes */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+    /** the default minimum amount of chunk outcomes before the rates are evaluated */
+    public static final int DEFAULT_MIN_CALLS = 20;
+    /** the default amount of probe chunks deciding about a half-open breaker */
+    public static final int DEFAULT_PROBES = 5;
+
+    /**
+     * The states of a {@link CircuitBreaker}
+     */
+    public enum State
+    {
+        /** invocations are permitted, chunk outcomes are recorded */
+        CLOSED,
+        /** invocations are short-circuited */
+        OPEN,
+        /** a limited amount of probe invocations is permitted */
+        HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int minCalls;
+    private final int probes;
+    private final byte[] window;
+
+    private State state = State.CLOSED;
+    private long stateSince = System.nanoTime();
+    private int next;
+    private int size;
+    private int failed;
+    private int slow;
+    private int permittedProbes;
+
+    /**
+     * Constructs the breaker with default values
+     */
+    public CircuitBreaker()
+    {
+        this(DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_RATE_THRESHOLD, DEFAULT_SLOW_CALL_DURATION_MILLIS,
+            DEFAULT_OPEN_DURATION_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WINDOW_SIZE, DEFAULT_MIN_CALLS,
+            DEFAULT_PROBES);
+    }
+
+    /**
+     * Constructs the breaker
+     *
+     * @param failureRateThreshold the rate of failed chunks opening the breaker, between <code>0</code> and
+     *     <code>1</code>
+     * @param slowCallRateThreshold the rate of slow chunks opening the breaker, between <code>0</code> and
+     *     <code>1</code>
+     * @param slowCallDuration the duration of a chunk to be considered slow
+     * @param openDuration the duration the breaker stays open
+     * @param unit the time unit of the durations
+     * @param windowSize the size of the sliding window of chunk outcomes
+     * @param minCalls the minimum amount of chunk outcomes before the rates are evaluated
+     * @param probes the amount of probe chunks deciding about a half-open breaker
+     */
+    public CircuitBreaker(final double failureRateThreshold, final double slowCallRateThreshold,
+        final long slowCallDuration, final long openDuration, final TimeUnit unit, final int windowSize,
+        final int minCalls, final int probes)
+    {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || slowCallRateThreshold <= 0
+            || slowCallRateThreshold > 1)
+        {
+            throw new IllegalArgumentException("thresholds have to be greater than 0 and at most 1");
+        }
+        if (windowSize <= 0 || minCalls <= 0 || minCalls > windowSize || probes <= 0)
+        {
+            throw new IllegalArgumentException("windowSize, minCalls and probes have to be greater than 0 and "
+                + "minCalls must not exceed windowSize");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = unit.toNanos(slowCallDuration);
+        this.openNanos = unit.toNanos(openDuration);
+        this.minCalls = minCalls;
+        this.probes = probes;
+        this.window = new byte[windowSize];
+    }
+
+    /**
+     * Decides, if an invocation may request its chunks. An open breaker turns half-open after the open duration, a
+     * half-open breaker permits the configured amount of probe invocations. In case the probes don't complete within
+     * the open duration, e.g. as they got cancelled, further probes are permitted.
+     *
+     * @return <code>true</code> in case the invocation is permitted, <code>false</code> if it has to be short-circuited
+     */
+    public synchronized boolean tryAcquirePermission()
+    {
+        final long now = System.nanoTime();
+        if (state == State.OPEN && now - stateSince >= openNanos)
+        {
+            transition(State.HALF_OPEN, now);
+        }
+        if (state == State.HALF_OPEN)
+        {
+            if (now - stateSince >= openNanos)
+            {
+                transition(State.HALF_OPEN, now);
+            }
+            if (permittedProbes < probes)
+            {
+                permittedProbes++;
+                return true;
+            }
+            return false;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Records the outcome of a completed chunk
+     *
+     * @param durationNanos the run time of the chunk in nanoseconds
+     * @param failure <code>true</code> in case the chunk failed
+     */
+    public synchronized void record(final long durationNanos, final boolean failure)
+    {
+        if (state == State.OPEN)
+        {
+            return;
+        }
+
+        final byte outcome = (byte) ((failure ? FAILED : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        if (size == window.length)
+        {
+            remove(window[next]);
+        }
+        else
+        {
+            size++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % window.length;
+        failed += outcome & FAILED;
+        slow += (outcome & SLOW) >> 1;
+
+        if (state == State.HALF_OPEN)
+        {
+            if (size >= probes)
+            {
+                transition(isExceeded() ? State.OPEN : State.CLOSED, System.nanoTime());
+            }
+        }
+        else if (size >= minCalls && isExceeded())
+        {
+            transition(State.OPEN, System.nanoTime());
+        }
+    }
+
+    private void remove(final byte outcome)
+    {
+        failed -= outcome & FAILED;
+        slow -= (outcome & SLOW) >> 1;
+    }
+
+    private boolean isExceeded()
+    {
+        return failed >= failureRateThreshold * size || slow >= slowCallRateThreshold * size;
+    }
+
+    private void transition(final State newState, final long now)
+    {
+        state = newState;
+        stateSince = now;
+        next = 0;
+        size = 0;
+        failed = 0;
+        slow = 0;
+        permittedProbes = 0;
+    }
+
+    /**
+     * @return the current {@link State}, not considering an elapsed open duration
+     */
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    /**
+     * @return the rate of failed chunks in the current window, or <code>0</code> without outcomes
+     */
+    public synchronized double getFailureRate()
+    {
+        return size == 0 ? 0 : failed / (double) size;
+    }
+
+    /**
+     * @return the rate of slow chunks in the current window, or <code>0</code> without outcomes
+     */
+    public synchronized double getSlowCallRate()
+    {
+        return size == 0 ? 0 : slow / (double) size;
+    }
+}
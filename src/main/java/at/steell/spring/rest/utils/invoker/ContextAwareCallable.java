@@ -5,13 +5,17 @@ import java.util.Locale;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
-import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.i18n.SimpleLocaleContext;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
 import at.steell.spring.rest.utils.dto.TypedResponse;
-import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ContextPropagators;
+import at.steell.spring.rest.utils.thread.ContextSnapshot;
+import at.steell.spring.rest.utils.thread.Priority;
+import at.steell.spring.rest.utils.thread.InvocationTrace.ChunkTrace;
 
 /**
  * Context aware callable, encapsulating a function call together with context information, containing tenant, locale
@@ -27,40 +31,106 @@ public class ContextAwareCallable<RESPONSE extends Serializable, ID extends Seri
 {
     private final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function;
     private final IdentifierQueryRequest<ID> request;
-    private final Locale locale;
-    private final Authentication authentication;
-    private final ExecutionContext executionContext;
+    private final ContextSnapshot context;
+    private final ChunkTrace trace;
+    private final Priority priority;
 
     /**
      * Constructs the callable
      *
      * @param function the function pointer to invoke in a dedicated thread
      * @param request the request used to apply with the function
-     * @param tenantId the tenant id to setup a tenant context in the thread performing the invocation
+     * @param context the {@link ContextSnapshot} of the invoking thread, usually shared by all callables of an
+     *     invocation
+     */
+    public ContextAwareCallable(final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request,
+        final ContextSnapshot context)
+    {
+        this(function, request, context, null);
+    }
+
+    /**
+     * Constructs the callable
+     *
+     * @param function the function pointer to invoke in a dedicated thread
+     * @param request the request used to apply with the function
+     * @param context the {@link ContextSnapshot} of the invoking thread, usually shared by all callables of an
+     *     invocation
+     * @param trace the {@link ChunkTrace} invocations issued by the function are traced as children of, may be
+     *     <code>null</code>
+     */
+    public ContextAwareCallable(final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request,
+        final ContextSnapshot context,
+        final ChunkTrace trace)
+    {
+        this(function, request, context, trace, Priority.current());
+    }
+
+    /**
+     * Constructs the callable
+     *
+     * @param function the function pointer to invoke in a dedicated thread
+     * @param request the request used to apply with the function
+     * @param context the {@link ContextSnapshot} of the invoking thread, usually shared by all callables of an
+     *     invocation
+     * @param trace the {@link ChunkTrace} invocations issued by the function are traced as children of, may be
+     *     <code>null</code>
+     * @param priority the {@link Priority} the callable is queued with
+     */
+    public ContextAwareCallable(final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request,
+        final ContextSnapshot context,
+        final ChunkTrace trace,
+        final Priority priority)
+    {
+        this.function = function;
+        this.request = request;
+        this.context = context;
+        this.trace = trace;
+        this.priority = priority;
+    }
+
+    /**
+     * Constructs the callable, capturing a {@link ContextSnapshot} of the current thread with the given locale and
+     * authentication
+     *
+     * @param function the function pointer to invoke in a dedicated thread
+     * @param request the request used to apply with the function
      * @param locale the locale to setup in the thread performing the invocation
      * @param authentication the authentication to setup the security context in the thread performing the invocation
-     * @param shouldCacheBeCleared flag which indicate if the {@link FeignCacheStateContext} is set to clear the cache
-     * @param requestId the unique id given by {@link FeignCacheStateContext}
-     * @param rtId the request tracking id
+     * @deprecated capture a {@link ContextSnapshot} once per invocation and use
+     *     {@link #ContextAwareCallable(Function, IdentifierQueryRequest, ContextSnapshot)}
      */
+    @Deprecated
     public ContextAwareCallable(final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
         final IdentifierQueryRequest<ID> request,
         final Locale locale,
         final Authentication authentication)
     {
-        this.function = function;
-        this.request = request;
-        this.locale = locale;
-        this.authentication = authentication;
-
-        this.executionContext = ExecutionContext.start();
-        this.executionContext.recordStackTrace();
+        this(function, request, ContextSnapshot.capture()
+            .with(ContextPropagators.LOCALE, new SimpleLocaleContext(locale))
+            .with(ContextPropagators.SECURITY, createSecurityContext(authentication)));
     }
 
     @Override
     public TypedResponse<RESPONSE> call() throws Exception
     {
-        return function.apply(request);
+        if (trace == null)
+        {
+            return function.apply(request);
+        }
+
+        final ChunkTrace previous = trace.enter();
+        try
+        {
+            return function.apply(request);
+        }
+        finally
+        {
+            trace.exit(previous);
+        }
     }
 
     /**
@@ -68,9 +138,7 @@ public class ContextAwareCallable<RESPONSE extends Serializable, ID extends Seri
      */
     public void beforeCall()
     {
-        LocaleContextHolder.setLocale(locale);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        ExecutionContext.set(this.executionContext);
+        context.restore();
     }
 
     /**
@@ -78,8 +146,37 @@ public class ContextAwareCallable<RESPONSE extends Serializable, ID extends Seri
      */
     public void afterCall()
     {
-        LocaleContextHolder.resetLocaleContext();
-        SecurityContextHolder.clearContext();
-        ExecutionContext.clear();
+        context.clear();
+    }
+
+    /**
+     * @return the request used to apply with the function
+     */
+    public IdentifierQueryRequest<ID> getRequest()
+    {
+        return request;
+    }
+
+    /**
+     * @return the {@link ContextSnapshot} of the invoking thread
+     */
+    public ContextSnapshot getContext()
+    {
+        return context;
+    }
+
+    /**
+     * @return the {@link Priority} the callable is queued with
+     */
+    public Priority getPriority()
+    {
+        return priority;
+    }
+
+    private static SecurityContext createSecurityContext(final Authentication authentication)
+    {
+        final SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(authentication);
+        return securityContext;
     }
 }
@@ -0,0 +1,673 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.steell.spring.rest.utils.TypedResponseCollector;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
+import at.steell.spring.rest.utils.thread.ContextAwareFutureTask;
+import at.steell.spring.rest.utils.thread.ContextSnapshot;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.InvocationTrace.ChunkTrace;
+import at.steell.spring.rest.utils.thread.Priority;
+
+/**
+ * Executes the chunks of a single {@link AbstractClientInvoker} invocation on a {@link ContextAwareExecutor} and
+ * collects their responses. The chunks of several client functions can be added as {@link Part parts}, so lookups of
+ * different response types are dispatched together and collected separately. Completed chunks are processed in
+ * completion order, which allows hedging chunks running longer than the configured hedge delay and retrying failed
+ * chunks without requesting the succeeded ones again.
+ * <p>
+ * In case the fan out is started from within a worker thread of the executor (e.g. a client function invoking another
+ * client invoker), waiting for queued chunks could starve the pool. Such nested fan outs run their own chunks in the
+ * calling worker as long as they are still queued, and only wait for chunks already running in other workers.
+ * <p>
+ * In case an {@link AdaptiveConcurrencyLimit} is set, chunks are only submitted as long as the limit permits, the
+ * remaining chunks are submitted as chunks of this fan out complete. A fan out always keeps one chunk in flight, so
+ * it can't be starved by concurrent invocations of the same client. In case a {@link RateLimiter} is set, every
+ * attempt takes a token, chunks without a token available are submitted once it is.
+ */
+final class FanOut
+{
+    private static final Logger LOG = LoggerFactory.getLogger(FanOut.class);
+
+    private final ContextAwareExecutor executor;
+    private final ContextSnapshot context;
+    private final LatencyTracker latencyTracker;
+    private final BlockingQueue<Attempt<?, ?>> completions = new LinkedBlockingQueue<>();
+    private final List<Chunk<?, ?>> chunks = new ArrayList<>();
+    private final boolean nested;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private long hedgeDelayNanos = -1;
+    private RequestBudget hedgeBudget;
+    private RetryPolicy retryPolicy;
+    private RequestBudget retryBudget;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    private CircuitBreaker circuitBreaker;
+    private RateLimiter rateLimiter;
+    private Priority priority = Priority.current();
+    private boolean failFast;
+    private int unsubmitted;
+    private long dispatchAt;
+    private boolean paced;
+
+    /**
+     * Constructs the fan out
+     *
+     * @param executor the {@link ContextAwareExecutor} to run the chunks on
+     * @param context the {@link ContextSnapshot} shared by all chunks
+     * @param latencyTracker the {@link LatencyTracker} recording the latency of every completed chunk
+     */
+    FanOut(final ContextAwareExecutor executor, final ContextSnapshot context, final LatencyTracker latencyTracker)
+    {
+        this.executor = executor;
+        this.context = context;
+        this.latencyTracker = latencyTracker;
+        this.nested = executor.isWorkerThread();
+    }
+
+    /**
+     * Adds the chunks of a client function to this fan out
+     *
+     * @param function the client function to apply to every chunk request
+     * @param requests the chunk requests
+     * @param trace the {@link InvocationTrace} the chunks are traced in
+     * @param <RESPONSE> the response payload type
+     * @param <ID> the id type used in requests
+     * @return the {@link Part} collecting the responses of the added chunks
+     */
+    <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> Part<RESPONSE> add(
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final List<IdentifierQueryRequest<ID>> requests,
+        final InvocationTrace trace)
+    {
+        final Part<RESPONSE> part = new Part<>();
+        for (final IdentifierQueryRequest<ID> request : requests)
+        {
+            final Chunk<RESPONSE, ID> chunk = new Chunk<>(part, function, request,
+                trace.addChunk(request.getIds().size()));
+            chunks.add(chunk);
+            part.chunks.add(chunk);
+        }
+        return part;
+    }
+
+    /**
+     * Enables hedging of chunks running longer than the given delay
+     *
+     * @param delayNanos the hedge delay in nanoseconds, a negative value disables hedging
+     * @param budget the {@link RequestBudget} bounding the amount of hedged chunks
+     * @return this fan out
+     */
+    FanOut hedging(final long delayNanos, final RequestBudget budget)
+    {
+        this.hedgeDelayNanos = delayNanos;
+        this.hedgeBudget = budget;
+        return this;
+    }
+
+    /**
+     * Enables retrying of failed chunks
+     *
+     * @param policy the {@link RetryPolicy} to apply
+     * @param budget the {@link RequestBudget} bounding the amount of retried chunks
+     * @return this fan out
+     */
+    FanOut retrying(final RetryPolicy policy, final RequestBudget budget)
+    {
+        this.retryPolicy = policy;
+        this.retryBudget = budget;
+        return this;
+    }
+
+    /**
+     * Enables gating the chunks in flight by the given limit
+     *
+     * @param limit the {@link AdaptiveConcurrencyLimit} of the client
+     * @return this fan out
+     */
+    FanOut limiting(final AdaptiveConcurrencyLimit limit)
+    {
+        this.concurrencyLimit = limit;
+        return this;
+    }
+
+    /**
+     * Enables recording the outcome of every completed attempt in the given breaker
+     *
+     * @param breaker the {@link CircuitBreaker} of the client
+     * @return this fan out
+     */
+    FanOut breaking(final CircuitBreaker breaker)
+    {
+        this.circuitBreaker = breaker;
+        return this;
+    }
+
+    /**
+     * Enables pacing all attempts by the given rate limiter
+     *
+     * @param limiter the {@link RateLimiter} of the client
+     * @return this fan out
+     */
+    FanOut pacing(final RateLimiter limiter)
+    {
+        this.rateLimiter = limiter;
+        return this;
+    }
+
+    /**
+     * Sets the priority all attempts are queued with, instead of the priority of the current {@link ExecutionContext}
+     *
+     * @param taskPriority the {@link Priority} of the attempts
+     * @return this fan out
+     */
+    FanOut prioritizing(final Priority taskPriority)
+    {
+        this.priority = taskPriority;
+        return this;
+    }
+
+    /**
+     * Enables failing fast: the first chunk failing finally stops waiting for the other chunks, which are cancelled
+     * and interrupted, while chunks not submitted yet are never submitted
+     *
+     * @return this fan out
+     */
+    FanOut failingFast()
+    {
+        this.failFast = true;
+        return this;
+    }
+
+    /**
+     * Submits all chunks and waits until every chunk is either answered or finally failed, or until the first chunk
+     * failed in case of failing fast. The responses are collected via the {@link Part parts} afterwards. Chunks still
+     * running when returning or throwing are cancelled.
+     *
+     * @throws InterruptedException if the calling thread got interrupted while waiting
+     * @throws IllegalStateException wrapping the failure of the first failed chunk
+     */
+    void execute() throws InterruptedException
+    {
+        try
+        {
+            int pending = chunks.size();
+            while (pending > 0)
+            {
+                submitUnsubmitted();
+                if (nested && runQueuedInline())
+                {
+                    continue;
+                }
+                final Attempt<?, ?> attempt = nextCompletion();
+                if (attempt == null)
+                {
+                    onTimer();
+                }
+                else if (complete(attempt))
+                {
+                    pending--;
+                    if (failFast && attempt.chunk.failure != null)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+        finally
+        {
+            chunks.forEach(Chunk::cancel);
+        }
+
+        for (final Chunk<?, ?> chunk : chunks)
+        {
+            if (chunk.failure != null)
+            {
+                throw new IllegalStateException(chunk.failure);
+            }
+        }
+    }
+
+    /**
+     * Submits the chunks not submitted yet, as far as the concurrency limit permits
+     */
+    private void submitUnsubmitted()
+    {
+        paced = false;
+        while (unsubmitted < chunks.size() && acquire(inFlight.get() == 0))
+        {
+            final long wait = pace();
+            if (wait > 0)
+            {
+                releaseSlot();
+                dispatchAt = System.nanoTime() + wait;
+                paced = true;
+                return;
+            }
+            submit(chunks.get(unsubmitted++));
+            if (hedgeBudget != null)
+            {
+                hedgeBudget.deposit();
+            }
+            if (retryBudget != null)
+            {
+                retryBudget.deposit();
+            }
+        }
+    }
+
+    /**
+     * Acquires a slot of the concurrency limit
+     *
+     * @param force <code>true</code> to acquire a slot regardless of the limit
+     * @return <code>true</code> in case a slot got acquired or no limit is set
+     */
+    private boolean acquire(final boolean force)
+    {
+        if (concurrencyLimit == null)
+        {
+            return true;
+        }
+        if (force)
+        {
+            concurrencyLimit.acquire();
+            return true;
+        }
+        return concurrencyLimit.tryAcquire();
+    }
+
+    /**
+     * Takes a token of the rate limiter
+     *
+     * @return <code>0</code> in case a token got taken or no rate limiter is set, otherwise the nanoseconds until the
+     *     next token is available
+     */
+    private long pace()
+    {
+        return rateLimiter == null ? 0 : rateLimiter.tryAcquire();
+    }
+
+    /**
+     * Releases a slot of the concurrency limit acquired for an attempt, which is not submitted
+     */
+    private void releaseSlot()
+    {
+        if (concurrencyLimit != null)
+        {
+            concurrencyLimit.release(-1, false);
+        }
+    }
+
+    private <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> void submit(
+        final Chunk<RESPONSE, ID> chunk)
+    {
+        final Attempt<RESPONSE, ID> attempt = new Attempt<>(chunk);
+        inFlight.incrementAndGet();
+        try
+        {
+            attempt.task = executor.submit(new ContextAwareCallable<>(chunk.function, chunk.request, context,
+                chunk.trace, priority),
+                task ->
+                {
+                    release(task);
+                    completions.add(attempt);
+                });
+        }
+        catch (final RejectedExecutionException e)
+        {
+            inFlight.decrementAndGet();
+            releaseSlot();
+            throw e;
+        }
+        chunk.attempts.add(attempt);
+    }
+
+    /**
+     * Releases the slot of a completed attempt and records its outcome, called in the thread completing the attempt
+     *
+     * @param task the task of the completed attempt
+     */
+    private void release(final ContextAwareFutureTask<?, ?> task)
+    {
+        inFlight.decrementAndGet();
+        if (concurrencyLimit == null && circuitBreaker == null)
+        {
+            return;
+        }
+        if (task.isCancelled() || task.getStartNanos() == 0)
+        {
+            if (concurrencyLimit != null)
+            {
+                concurrencyLimit.release(-1, false);
+            }
+            return;
+        }
+
+        boolean dropped = false;
+        try
+        {
+            task.get();
+        }
+        catch (final ExecutionException e)
+        {
+            dropped = true;
+        }
+        catch (final InterruptedException e)
+        {
+            /* not possible for a completed task */
+            Thread.currentThread().interrupt();
+        }
+        final long rtt = task.getDoneNanos() - task.getStartNanos();
+        if (concurrencyLimit != null)
+        {
+            concurrencyLimit.release(rtt, dropped);
+        }
+        if (circuitBreaker != null)
+        {
+            circuitBreaker.record(rtt, dropped);
+        }
+    }
+
+    /**
+     * Runs the first attempt of this fan out still waiting in the queue of the executor in the current thread
+     *
+     * @return <code>true</code> in case an attempt was run
+     */
+    private boolean runQueuedInline()
+    {
+        for (final Chunk<?, ?> chunk : chunks)
+        {
+            for (final Attempt<?, ?> attempt : chunk.attempts)
+            {
+                if (attempt.task.getStartNanos() == 0 && !attempt.task.isDone() && executor.runInline(attempt.task))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits for the next completed attempt. Waiting is limited to the point in time the next chunk is due for hedging
+     * or retrying.
+     *
+     * @return the next completed attempt, or <code>null</code> in case a chunk might be due for hedging or retrying
+     * @throws InterruptedException if the calling thread got interrupted while waiting
+     */
+    private Attempt<?, ?> nextCompletion() throws InterruptedException
+    {
+        final long now = System.nanoTime();
+        long wait = paced ? dispatchAt - now : Long.MAX_VALUE;
+        for (final Chunk<?, ?> chunk : chunks)
+        {
+            if (chunk.retrying)
+            {
+                wait = Math.min(wait, chunk.retryAt - now);
+            }
+            else if (isHedgeable(chunk))
+            {
+                final long started = chunk.getPrimary().task.getStartNanos();
+                /* a chunk still waiting in the queue is checked again after one hedge delay */
+                wait = Math.min(wait, started == 0 ? hedgeDelayNanos : started + hedgeDelayNanos - now);
+            }
+        }
+        if (wait == Long.MAX_VALUE)
+        {
+            return completions.take();
+        }
+        return completions.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Submits chunks due for retrying and hedges overdue chunks
+     */
+    private void onTimer()
+    {
+        final long now = System.nanoTime();
+        for (final Chunk<?, ?> chunk : chunks)
+        {
+            if (chunk.retrying && now - chunk.retryAt >= 0)
+            {
+                final long wait = pace();
+                if (wait > 0)
+                {
+                    chunk.retryAt = now + wait;
+                    continue;
+                }
+                /* retries are bounded by their budget, so they don't wait for the concurrency limit */
+                acquire(true);
+                chunk.retrying = false;
+                chunk.hedged = false;
+                chunk.primary = chunk.attempts.size();
+                submit(chunk);
+            }
+            else if (isHedgeable(chunk))
+            {
+                final long started = chunk.getPrimary().task.getStartNanos();
+                if (started != 0 && now - started >= hedgeDelayNanos)
+                {
+                    /* a chunk is considered once only, regardless of the budget or the limit being available */
+                    chunk.hedged = true;
+                    if (acquire(false))
+                    {
+                        /* the pace is checked before withdrawing, so a refused hedge does not drain the budget */
+                        if ((hedgeBudget == null || hedgeBudget.getTokens() >= 1) && pace() == 0
+                            && (hedgeBudget == null || hedgeBudget.tryWithdraw()))
+                        {
+                            submit(chunk);
+                        }
+                        else
+                        {
+                            releaseSlot();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isHedgeable(final Chunk<?, ?> chunk)
+    {
+        return hedgeDelayNanos >= 0 && !chunk.attempts.isEmpty() && !chunk.done && !chunk.hedged && !chunk.retrying;
+    }
+
+    /**
+     * Processes a completed attempt. The first successful attempt answers the chunk. A failed attempt fails the chunk
+     * only if no other attempt is still running and the failure is not retried.
+     *
+     * @param attempt the completed attempt
+     * @return <code>true</code> in case the chunk is done by the given attempt
+     * @throws InterruptedException never, as the given attempt is already completed
+     */
+    private <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> boolean complete(
+        final Attempt<RESPONSE, ID> attempt) throws InterruptedException
+    {
+        final Chunk<RESPONSE, ID> chunk = attempt.chunk;
+        if (chunk.done || chunk.retrying)
+        {
+            return false;
+        }
+
+        try
+        {
+            chunk.response = attempt.task.get();
+            latencyTracker.record(attempt.task.getDoneNanos() - attempt.task.getStartNanos());
+            chunk.trace(attempt, false);
+            if (chunk.part.sink != null)
+            {
+                chunk.part.sink.accept(chunk.response);
+                chunk.response = null;
+            }
+        }
+        catch (final ExecutionException | CancellationException e)
+        {
+            if (chunk.attempts.stream().anyMatch(other -> !other.task.isDone()))
+            {
+                return false;
+            }
+            if (scheduleRetry(chunk, e))
+            {
+                return false;
+            }
+            chunk.failure = e;
+            chunk.trace(attempt, true);
+        }
+        chunk.done = true;
+        chunk.cancel();
+        return true;
+    }
+
+    /**
+     * Schedules a retry of the given failed chunk, in case the {@link RetryPolicy} and the budget permit it
+     *
+     * @param chunk the failed chunk
+     * @param failure the failure of the last attempt
+     * @return <code>true</code> in case a retry got scheduled
+     */
+    private boolean scheduleRetry(final Chunk<?, ?> chunk, final Exception failure)
+    {
+        final Throwable cause = failure instanceof ExecutionException ? failure.getCause() : failure;
+        if (retryPolicy == null || !retryPolicy.isRetryable(cause, ++chunk.retries) || !retryBudget.tryWithdraw())
+        {
+            return false;
+        }
+
+        final long backoff = retryPolicy.getBackoffNanos(chunk.retries);
+        LOG.debug("retry chunk of {} ids after {} ms", chunk.request.getIds().size(),
+            TimeUnit.NANOSECONDS.toMillis(backoff));
+        chunk.retryAt = System.nanoTime() + backoff;
+        chunk.retrying = true;
+        return true;
+    }
+
+    /**
+     * The chunks of a single client function added to the fan out
+     *
+     * @param <RESPONSE> the response payload type
+     */
+    final class Part<RESPONSE extends Serializable>
+    {
+        private final List<Chunk<RESPONSE, ?>> chunks = new ArrayList<>();
+        private Consumer<TypedResponse<RESPONSE>> sink;
+
+        /**
+         * Streams the response of every chunk to the given sink as soon as the chunk is answered, instead of keeping it
+         * until the fan out is collected. The sink is called by the thread executing the fan out.
+         *
+         * @param responseSink the sink to stream the chunk responses to
+         * @return this part
+         */
+        Part<RESPONSE> streamingTo(final Consumer<TypedResponse<RESPONSE>> responseSink)
+        {
+            this.sink = responseSink;
+            return this;
+        }
+
+        /**
+         * @return the responses of all chunks of this part not streamed to a sink, collected into a single
+         *     {@link TypedResponse}
+         */
+        TypedResponse<RESPONSE> collect()
+        {
+            return chunks.stream().map(chunk -> chunk.response).filter(Objects::nonNull)
+                .collect(new TypedResponseCollector<RESPONSE>());
+        }
+    }
+
+    /**
+     * A single chunk of the fan out, which might be requested by multiple attempts in case it got hedged or retried
+     *
+     * @param <RESPONSE> the response payload type
+     * @param <ID> the id type used in requests
+     */
+    private final class Chunk<RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>>
+    {
+        private final Part<RESPONSE> part;
+        private final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function;
+        private final IdentifierQueryRequest<ID> request;
+        private final ChunkTrace trace;
+        private final List<Attempt<RESPONSE, ID>> attempts = new ArrayList<>(2);
+        private int primary;
+        private int retries;
+        private boolean retrying;
+        private long retryAt;
+        private boolean hedged;
+        private boolean done;
+        private TypedResponse<RESPONSE> response;
+        private Throwable failure;
+
+        private Chunk(final Part<RESPONSE> part,
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+            final IdentifierQueryRequest<ID> request, final ChunkTrace trace)
+        {
+            this.part = part;
+            this.function = function;
+            this.request = request;
+            this.trace = trace;
+        }
+
+        /**
+         * @return the first attempt of the current try, which is the one getting hedged
+         */
+        private Attempt<RESPONSE, ID> getPrimary()
+        {
+            return attempts.get(primary);
+        }
+
+        /**
+         * Traces the completion of this chunk by the given attempt
+         *
+         * @param attempt the attempt completing this chunk
+         * @param failed <code>true</code> in case the chunk failed
+         */
+        private void trace(final Attempt<RESPONSE, ID> attempt, final boolean failed)
+        {
+            final ContextAwareFutureTask<RESPONSE, ID> task = attempt.task;
+            final long started = task.getStartNanos() == 0 ? task.getDoneNanos() : task.getStartNanos();
+            trace.complete(started - task.getSubmitNanos(), task.getDoneNanos() - started,
+                response == null ? 0 : response.getElements().size(), attempts.size(), failed);
+        }
+
+        private void cancel()
+        {
+            attempts.forEach(attempt -> attempt.task.cancel(true));
+        }
+    }
+
+    /**
+     * A single request of a chunk
+     *
+     * @param <RESPONSE> the response payload type
+     * @param <ID> the id type used in requests
+     */
+    private final class Attempt<RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>>
+    {
+        private final Chunk<RESPONSE, ID> chunk;
+        private ContextAwareFutureTask<RESPONSE, ID> task;
+
+        private Attempt(final Chunk<RESPONSE, ID> chunk)
+        {
+            this.chunk = chunk;
+        }
+    }
+}
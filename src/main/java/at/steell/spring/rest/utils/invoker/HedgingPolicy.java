@@ -0,0 +1,100 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of hedged chunk requests in {@link AbstractClientInvoker}. In case a chunk runs longer than the
+ * configured percentile of recently tracked chunk latencies, a duplicate request is sent. The first answer wins, the
+ * other request is cancelled. The ratio of hedged to regular chunks is capped by a {@link RequestBudget}.
+ */
+public class HedgingPolicy
+{
+    /** the default percentile of recent chunk latency after which a chunk is hedged */
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    /** the default maximum ratio of hedged to regular chunks */
+    public static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+    /** the default amount of latency samples required before hedging starts */
+    public static final int DEFAULT_MIN_SAMPLES = 100;
+
+    private final double percentile;
+    private final double maxHedgeRatio;
+    private final long minDelayNanos;
+    private final int minSamples;
+
+    /**
+     * Constructs the policy with default values and no minimum delay
+     */
+    public HedgingPolicy()
+    {
+        this(DEFAULT_PERCENTILE, DEFAULT_MAX_HEDGE_RATIO, 0, TimeUnit.MILLISECONDS, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * Constructs the policy
+     *
+     * @param percentile the percentile of recent chunk latency, after which a chunk is hedged
+     * @param maxHedgeRatio the maximum ratio of hedged to regular chunks
+     * @param minDelay the minimum delay before a chunk is hedged
+     * @param unit the time unit of the minimum delay
+     * @param minSamples the amount of latency samples required before hedging starts
+     */
+    public HedgingPolicy(final double percentile, final double maxHedgeRatio, final long minDelay,
+        final TimeUnit unit, final int minSamples)
+    {
+        if (percentile <= 0 || percentile > 1)
+        {
+            throw new IllegalArgumentException("percentile has to be in the range of (0, 1]");
+        }
+        if (maxHedgeRatio < 0)
+        {
+            throw new IllegalArgumentException("maxHedgeRatio must not be negative");
+        }
+        this.percentile = percentile;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.minDelayNanos = unit.toNanos(minDelay);
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Computes the delay after which a running chunk gets hedged
+     *
+     * @param tracker the {@link LatencyTracker} of the client
+     * @return the delay in nanoseconds, or a negative value in case not enough samples are available for hedging
+     */
+    public long getHedgeDelayNanos(final LatencyTracker tracker)
+    {
+        if (tracker.getSampleCount() < minSamples)
+        {
+            return -1;
+        }
+        return Math.max(minDelayNanos, tracker.percentile(percentile));
+    }
+
+    /**
+     * @return a new {@link RequestBudget} bounding hedged chunks to the configured ratio
+     */
+    public RequestBudget createBudget()
+    {
+        return new RequestBudget(maxHedgeRatio, Math.max(1, maxHedgeRatio * minSamples));
+    }
+
+    public double getPercentile()
+    {
+        return percentile;
+    }
+
+    public double getMaxHedgeRatio()
+    {
+        return maxHedgeRatio;
+    }
+
+    public long getMinDelayNanos()
+    {
+        return minDelayNanos;
+    }
+
+    public int getMinSamples()
+    {
+        return minSamples;
+    }
+}
@@ -0,0 +1,31 @@
+package at.steell.spring.rest.utils.invoker;
+
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+
+/**
+ * Listener notified by {@link AbstractClientInvoker} about every completed invocation. Listeners are called in the
+ * invoking thread.
+ */
+public interface InvocationListener
+{
+    /**
+     * Called as soon as an invocation started, before any chunk is requested
+     *
+     * @param client the name of the client, which is the simple class name of the invoker
+     * @param function the name of the invoked client function
+     * @param trace the {@link InvocationTrace} of the invocation, without any chunk yet
+     */
+    default void invocationStarted(final String client, final String function, final InvocationTrace trace)
+    {
+    }
+
+    /**
+     * Called after an invocation completed, either successfully or by failure
+     *
+     * @param client the name of the client, which is the simple class name of the invoker
+     * @param function the name of the invoked client function
+     * @param trace the {@link InvocationTrace} of the invocation, containing the traces of all chunks
+     * @param failure the failure of the invocation, or <code>null</code> in case it succeeded
+     */
+    void invocationCompleted(String client, String function, InvocationTrace trace, Throwable failure);
+}
@@ -0,0 +1,138 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.io.Serializable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import at.steell.spring.rest.utils.cache.NegativeCache;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.exception.CircuitBreakerOpenException;
+
+/**
+ * The optional settings of an invocation, see
+ * {@link AbstractClientInvoker#invoke(Function, IdentifierQueryRequest, InvocationOptions)}. Options are immutable,
+ * every <code>with</code> method returns a copy, so options of a client function can be kept in a constant:
+ *
+ * <pre>
+ * private static final InvocationOptions&lt;Dto, Long&gt; GET_DTOS = new InvocationOptions&lt;Dto, Long&gt;()
+ *     .withFunctionName("getDtos")
+ *     .withIdFunction(Dto::getId);
+ * </pre>
+ *
+ * @param <RESPONSE> the response type
+ * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+ */
+public final class InvocationOptions<RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>>
+{
+    private final String functionName;
+    private final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> bodyFunction;
+    private final Function<RESPONSE, ID> idFunction;
+    private final Supplier<TypedResponse<RESPONSE>> fallback;
+    private final Consumer<TypedResponse<RESPONSE>> sink;
+
+    /**
+     * Constructs the default options
+     */
+    public InvocationOptions()
+    {
+        this(null, null, null, null, null);
+    }
+
+    private InvocationOptions(final String functionName,
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> bodyFunction,
+        final Function<RESPONSE, ID> idFunction, final Supplier<TypedResponse<RESPONSE>> fallback,
+        final Consumer<TypedResponse<RESPONSE>> sink)
+    {
+        this.functionName = functionName;
+        this.bodyFunction = bodyFunction;
+        this.idFunction = idFunction;
+        this.fallback = fallback;
+        this.sink = sink;
+    }
+
+    /**
+     * @param functionName the name of the invoked client function used to notify {@link InvocationListener}
+     *     instances, may be <code>null</code>
+     * @return a copy of these options using the given function name
+     */
+    public InvocationOptions<RESPONSE, ID> withFunctionName(final String functionName)
+    {
+        return new InvocationOptions<>(functionName, bodyFunction, idFunction, fallback, sink);
+    }
+
+    /**
+     * Offers a second transport of the client function. The {@link TransportPolicy} of the invoker decides by the
+     * amount of identifiers and the measured cost of both transports whether the request is split into URL sized
+     * chunks for the invoked function, or into few large chunks for the body function.
+     *
+     * @param bodyFunction the clients function taking the identifiers in the request body, may be <code>null</code>
+     *     to always use the invoked function
+     * @return a copy of these options using the given body function
+     */
+    public InvocationOptions<RESPONSE, ID> withBodyFunction(
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> bodyFunction)
+    {
+        return new InvocationOptions<>(functionName, bodyFunction, idFunction, fallback, sink);
+    }
+
+    /**
+     * Enables negative caching and request scoped memoization, in case they are enabled at the invoker. Identifiers
+     * known to be absent by the {@link NegativeCache} are dropped before splitting the request, and requested
+     * identifiers missing in the response are remembered as absent.
+     *
+     * @param idFunction the function deriving the identifier of a response element, may be <code>null</code> to
+     *     disable negative caching and memoization
+     * @return a copy of these options using the given identifier function
+     */
+    public InvocationOptions<RESPONSE, ID> withIdFunction(final Function<RESPONSE, ID> idFunction)
+    {
+        return new InvocationOptions<>(functionName, bodyFunction, idFunction, fallback, sink);
+    }
+
+    /**
+     * @param fallback the supplier of the response returned without requesting any chunk while the
+     *     {@link CircuitBreaker} of the invoker is open, called once per short circuited invocation, so callers never
+     *     share a response, may be <code>null</code> to throw a {@link CircuitBreakerOpenException} instead
+     * @return a copy of these options using the given fallback
+     */
+    public InvocationOptions<RESPONSE, ID> withFallback(final Supplier<TypedResponse<RESPONSE>> fallback)
+    {
+        return new InvocationOptions<>(functionName, bodyFunction, idFunction, fallback, sink);
+    }
+
+    /**
+     * @param sink the consumer every chunk response is streamed to as soon as the chunk is answered
+     * @return a copy of these options using the given sink
+     */
+    InvocationOptions<RESPONSE, ID> withSink(final Consumer<TypedResponse<RESPONSE>> sink)
+    {
+        return new InvocationOptions<>(functionName, bodyFunction, idFunction, fallback, sink);
+    }
+
+    public String getFunctionName()
+    {
+        return functionName;
+    }
+
+    public Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> getBodyFunction()
+    {
+        return bodyFunction;
+    }
+
+    public Function<RESPONSE, ID> getIdFunction()
+    {
+        return idFunction;
+    }
+
+    public Supplier<TypedResponse<RESPONSE>> getFallback()
+    {
+        return fallback;
+    }
+
+    Consumer<TypedResponse<RESPONSE>> getSink()
+    {
+        return sink;
+    }
+}
@@ -0,0 +1,119 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the latency of recently executed chunk invocations of a single client. Latencies are kept in a fixed size ring
+ * buffer, so percentiles always reflect the most recent window of samples. As percentiles are queried per invocation,
+ * the last computed percentile is cached and only computed again once the samples changed by a sixteenth of the
+ * window.
+ */
+public class LatencyTracker
+{
+    /** the default amount of samples kept in the window */
+    public static final int DEFAULT_WINDOW_SIZE = 512;
+
+    /** the fraction of samples recorded since the last computation causing a percentile to be computed again */
+    private static final int RECOMPUTE_FRACTION = 16;
+
+    private final long[] samples;
+    private volatile long count;
+    private volatile Percentile cached;
+
+    /**
+     * Constructs a tracker with a window of {@value #DEFAULT_WINDOW_SIZE} samples
+     */
+    public LatencyTracker()
+    {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a tracker with the given window size
+     *
+     * @param windowSize the amount of most recent samples to keep
+     */
+    public LatencyTracker(final int windowSize)
+    {
+        if (windowSize <= 0)
+        {
+            throw new IllegalArgumentException("windowSize has to be greater than 0");
+        }
+        this.samples = new long[windowSize];
+    }
+
+    /**
+     * Records a latency sample
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(final long nanos)
+    {
+        samples[(int) (count % samples.length)] = nanos;
+        count++;
+    }
+
+    /**
+     * @return the amount of samples currently available in the window
+     */
+    public synchronized int getSampleCount()
+    {
+        return (int) Math.min(count, samples.length);
+    }
+
+    /**
+     * Computes the given percentile over the samples currently available in the window
+     *
+     * @param percentile the percentile to compute, in the range of <code>(0, 1]</code>
+     * @return the latency in nanoseconds, or <code>0</code> in case no samples are available
+     */
+    public long percentile(final double percentile)
+    {
+        if (percentile <= 0 || percentile > 1)
+        {
+            throw new IllegalArgumentException("percentile has to be in the range of (0, 1]");
+        }
+
+        final Percentile current = cached;
+        final long recorded = count;
+        if (current != null && current.percentile == percentile
+            && recorded - current.count < Math.max(1, Math.min(recorded, samples.length) / RECOMPUTE_FRACTION))
+        {
+            return current.value;
+        }
+
+        final long[] sorted;
+        final long sorting;
+        synchronized (this)
+        {
+            sorted = Arrays.copyOf(samples, getSampleCount());
+            sorting = count;
+        }
+        long value = 0;
+        if (sorted.length > 0)
+        {
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            value = sorted[Math.max(0, index)];
+        }
+        cached = new Percentile(percentile, value, sorting);
+        return value;
+    }
+
+    /**
+     * A computed percentile together with the amount of samples recorded when it was computed
+     */
+    private static final class Percentile
+    {
+        private final double percentile;
+        private final long value;
+        private final long count;
+
+        private Percentile(final double percentile, final long value, final long count)
+        {
+            this.percentile = percentile;
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket limiting the rate of requests sent to a client. The bucket is refilled continuously with the
+ * configured rate and holds at most the configured burst of tokens, every request takes one token. Instead of blocking,
+ * a request without a token available learns how long to wait, so {@link AbstractClientInvoker} paces chunks to the
+ * quota of the downstream instead of bursting into it. A new bucket starts full.
+ */
+public class RateLimiter
+{
+    private final double permitsPerSecond;
+    private final double burst;
+    private final double nanosPerPermit;
+    private double tokens;
+    private long refilledNanos = System.nanoTime();
+
+    /**
+     * Constructs the rate limiter with a burst of a single request
+     *
+     * @param permitsPerSecond the permitted requests per second
+     */
+    public RateLimiter(final double permitsPerSecond)
+    {
+        this(permitsPerSecond, 1);
+    }
+
+    /**
+     * Constructs the rate limiter
+     *
+     * @param permitsPerSecond the permitted requests per second
+     * @param burst the maximum amount of requests permitted at once after a period without requests
+     */
+    public RateLimiter(final double permitsPerSecond, final int burst)
+    {
+        if (permitsPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("permitsPerSecond has to be greater than 0");
+        }
+        if (burst < 1)
+        {
+            throw new IllegalArgumentException("burst has to be at least 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tokens = burst;
+    }
+
+    /**
+     * Takes a token, if available
+     *
+     * @return <code>0</code> in case a token got taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryAcquire()
+    {
+        final long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledNanos) / nanosPerPermit);
+        refilledNanos = now;
+        if (tokens >= 1)
+        {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) * nanosPerPermit));
+    }
+
+    public double getPermitsPerSecond()
+    {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,66 @@
+package at.steell.spring.rest.utils.invoker;
+
+/**
+ * A budget bounding the amount of additional requests (e.g. hedged chunks) in relation to the amount of regular
+ * requests. Every regular request deposits {@code ratio} tokens, every additional request withdraws a whole token. The
+ * amount of tokens is capped, so a long period without additional requests does not allow a burst afterwards. A new
+ * budget starts with the maximum amount of tokens.
+ */
+public class RequestBudget
+{
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    /**
+     * Constructs the budget
+     *
+     * @param ratio the maximum ratio of additional requests to regular requests
+     * @param maxTokens the maximum amount of tokens that can be saved up
+     */
+    public RequestBudget(final double ratio, final double maxTokens)
+    {
+        if (ratio < 0)
+        {
+            throw new IllegalArgumentException("ratio must not be negative");
+        }
+        if (maxTokens < 1)
+        {
+            throw new IllegalArgumentException("maxTokens has to be at least 1");
+        }
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+     * Deposits the tokens earned by a regular request
+     */
+    public synchronized void deposit()
+    {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Withdraws a token for an additional request, if available
+     *
+     * @return <code>true</code> in case the additional request is within the budget, otherwise <code>false</code>
+     */
+    public synchronized boolean tryWithdraw()
+    {
+        if (tokens >= 1)
+        {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the amount of tokens currently available
+     */
+    public synchronized double getTokens()
+    {
+        return tokens;
+    }
+}
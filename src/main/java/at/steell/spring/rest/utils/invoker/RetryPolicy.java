@@ -0,0 +1,131 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Configuration of chunk level retries in {@link AbstractClientInvoker}. Only failed chunks are requested again, after
+ * an exponentially growing, fully jittered backoff. Whether a failure is retried at all is decided by a classifier, the
+ * ratio of retried to regular chunks is capped by a {@link RequestBudget}.
+ */
+public class RetryPolicy
+{
+    /** the default maximum amount of attempts per chunk, including the first one */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /** the default backoff before the first retry in milliseconds */
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 50;
+    /** the default maximum backoff in milliseconds */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+    /** the default maximum ratio of retried to regular chunks */
+    public static final double DEFAULT_MAX_RETRY_RATIO = 0.1;
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final double maxRetryRatio;
+    private final Predicate<Throwable> retryable;
+
+    /**
+     * Constructs the policy with default values, retrying every {@link RuntimeException}
+     */
+    public RetryPolicy()
+    {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS,
+            DEFAULT_MAX_RETRY_RATIO, RuntimeException.class::isInstance);
+    }
+
+    /**
+     * Constructs the policy
+     *
+     * @param maxAttempts the maximum amount of attempts per chunk, including the first one
+     * @param baseDelay the backoff before the first retry
+     * @param maxDelay the maximum backoff
+     * @param unit the time unit of the delays
+     * @param maxRetryRatio the maximum ratio of retried to regular chunks
+     * @param retryable the classifier deciding, if the failure of a chunk is retryable
+     */
+    public RetryPolicy(final int maxAttempts, final long baseDelay, final long maxDelay, final TimeUnit unit,
+        final double maxRetryRatio, final Predicate<Throwable> retryable)
+    {
+        if (maxAttempts < 1)
+        {
+            throw new IllegalArgumentException("maxAttempts has to be at least 1");
+        }
+        if (baseDelay < 0 || maxDelay < baseDelay)
+        {
+            throw new IllegalArgumentException("delays must not be negative and baseDelay must not exceed maxDelay");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxRetryRatio = maxRetryRatio;
+        this.retryable = retryable;
+    }
+
+    /**
+     * Creates a classifier treating failures of the given types (or sub types) as retryable
+     *
+     * @param types the retryable failure types
+     * @return the classifier
+     */
+    @SafeVarargs
+    public static Predicate<Throwable> retryOn(final Class<? extends Throwable>... types)
+    {
+        return failure -> Arrays.stream(types).anyMatch(type -> type.isInstance(failure));
+    }
+
+    /**
+     * Decides, if a chunk failed with the given failure is retried
+     *
+     * @param failure the failure thrown by the client function
+     * @param attempts the amount of attempts already done for the chunk
+     * @return <code>true</code> in case the chunk may be retried, as far as the budget permits
+     */
+    public boolean isRetryable(final Throwable failure, final int attempts)
+    {
+        return attempts < maxAttempts && retryable.test(failure);
+    }
+
+    /**
+     * Computes the fully jittered backoff before the next attempt
+     *
+     * @param attempts the amount of attempts already done for the chunk
+     * @return the backoff in nanoseconds
+     */
+    public long getBackoffNanos(final int attempts)
+    {
+        final long ceiling = baseDelayNanos << Math.min(attempts - 1, 30);
+        final long bound = ceiling < 0 || ceiling > maxDelayNanos ? maxDelayNanos : ceiling;
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * @return a new {@link RequestBudget} bounding retried chunks to the configured ratio
+     */
+    public RequestBudget createBudget()
+    {
+        return new RequestBudget(maxRetryRatio, Math.max(1, maxRetryRatio * 100));
+    }
+
+    public int getMaxAttempts()
+    {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayNanos()
+    {
+        return baseDelayNanos;
+    }
+
+    public long getMaxDelayNanos()
+    {
+        return maxDelayNanos;
+    }
+
+    public double getMaxRetryRatio()
+    {
+        return maxRetryRatio;
+    }
+}
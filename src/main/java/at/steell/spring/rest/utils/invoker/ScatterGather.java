@@ -0,0 +1,195 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.exception.CircuitBreakerOpenException;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+
+/**
+ * Scatter gather of multiple client functions of an {@link AbstractClientInvoker}, which may differ in their response
+ * and id types. The requests of all added functions are split and dispatched together as a single fan out, so the
+ * invocation takes as long as its slowest chunk instead of the sum of sequential invocations. The policies of the
+ * invoker apply to all chunks, the responses are collected per function and can be retrieved from the
+ * {@link Result} by the {@link Key} returned when adding the function.
+ * <p>
+ * A scatter gather is started by {@link AbstractClientInvoker#scatter()}, is not thread safe and can be executed once.
+ */
+public final class ScatterGather
+{
+    /** the function name used to notify {@link InvocationListener} instances */
+    public static final String FUNCTION_NAME = "scatterGather";
+
+    private final AbstractClientInvoker<?> invoker;
+    private final List<Branch<?, ?>> branches = new ArrayList<>();
+    private boolean executed;
+
+    /**
+     * Constructs the scatter gather
+     *
+     * @param invoker the {@link AbstractClientInvoker} whose executor and policies are used
+     */
+    ScatterGather(final AbstractClientInvoker<?> invoker)
+    {
+        this.invoker = invoker;
+    }
+
+    /**
+     * Adds a client function to this scatter gather
+     *
+     * @param function the clients function to be invoked in parallel
+     * @param request the request detail that should be split and processed in parallel
+     * @param <ID> the identifier type of {@link IdentifierQueryRequest} to process
+     * @param <RESPONSE> the response type
+     * @return the {@link Key} to retrieve the collected response from the {@link Result}
+     */
+    public <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> Key<RESPONSE> add(
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+        final IdentifierQueryRequest<ID> request)
+    {
+        if (executed)
+        {
+            throw new IllegalStateException("scatter gather already executed");
+        }
+        final Key<RESPONSE> key = new Key<>();
+        branches.add(new Branch<>(key, function, request));
+        return key;
+    }
+
+    /**
+     * Dispatches the chunks of all added client functions and waits until every chunk is either answered or finally
+     * failed. In case any chunk fails, the whole scatter gather fails.
+     *
+     * @return the {@link Result} holding the collected response of every added function
+     * @throws CircuitBreakerOpenException in case the {@link CircuitBreaker} of the invoker is open
+     */
+    @SuppressWarnings("squid:S2142") //InterruptedException should not be ignored: will be handled differently here
+    public Result execute()
+    {
+        if (executed)
+        {
+            throw new IllegalStateException("scatter gather already executed");
+        }
+        executed = true;
+
+        final String clientName = invoker.getClass().getSimpleName();
+        final ExecutionContext executionContext = ExecutionContext.start();
+        final int idCount = branches.stream().mapToInt(branch -> branch.request.getIds().size()).sum();
+        final InvocationTrace trace = executionContext.startInvocation(clientName, idCount);
+        invoker.invocationStarted(clientName, FUNCTION_NAME, trace);
+
+        Throwable failure = null;
+        try
+        {
+            final CircuitBreaker breaker = invoker.getCircuitBreaker();
+            if (breaker != null && !breaker.tryAcquirePermission())
+            {
+                throw new CircuitBreakerOpenException("circuit breaker of " + clientName + " is open");
+            }
+            final FanOut fanOut = invoker.createFanOut(breaker);
+            final Map<Key<?>, FanOut.Part<?>> parts = new IdentityHashMap<>();
+            for (final Branch<?, ?> branch : branches)
+            {
+                parts.put(branch.key, branch.addTo(fanOut, trace));
+            }
+            fanOut.execute();
+
+            final Result result = new Result();
+            parts.forEach((key, part) -> result.responses.put(key, part.collect()));
+            return result;
+        }
+        catch (final InterruptedException e)
+        {
+            failure = e;
+            throw invoker.interrupted(e);
+        }
+        catch (final IllegalStateException e)
+        {
+            failure = invoker.failureOf(e);
+            throw (RuntimeException) failure;
+        }
+        catch (final RuntimeException e)
+        {
+            failure = e;
+            throw e;
+        }
+        finally
+        {
+            trace.end();
+            invoker.invocationCompleted(clientName, FUNCTION_NAME, trace, failure);
+        }
+    }
+
+    /**
+     * Typed key of a client function added to a {@link ScatterGather}
+     *
+     * @param <RESPONSE> the response type
+     */
+    public static final class Key<RESPONSE extends Serializable>
+    {
+        private Key()
+        {
+        }
+    }
+
+    /**
+     * The collected responses of an executed {@link ScatterGather}
+     */
+    public static final class Result
+    {
+        private final Map<Key<?>, TypedResponse<?>> responses = new IdentityHashMap<>();
+
+        private Result()
+        {
+        }
+
+        /**
+         * @param key the {@link Key} returned when adding the client function
+         * @param <RESPONSE> the response type
+         * @return the collected {@link TypedResponse} of the client function
+         * @throws IllegalArgumentException in case the key was not added to the executed scatter gather
+         */
+        @SuppressWarnings("unchecked")
+        public <RESPONSE extends Serializable> TypedResponse<RESPONSE> get(final Key<RESPONSE> key)
+        {
+            final TypedResponse<?> response = responses.get(key);
+            if (response == null)
+            {
+                throw new IllegalArgumentException("unknown key");
+            }
+            return (TypedResponse<RESPONSE>) response;
+        }
+    }
+
+    /**
+     * A client function added to the scatter gather
+     */
+    private static final class Branch<RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>>
+    {
+        private final Key<RESPONSE> key;
+        private final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function;
+        private final IdentifierQueryRequest<ID> request;
+
+        private Branch(final Key<RESPONSE> key,
+            final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> function,
+            final IdentifierQueryRequest<ID> request)
+        {
+            this.key = key;
+            this.function = function;
+            this.request = request;
+        }
+
+        private FanOut.Part<RESPONSE> addTo(final FanOut fanOut, final InvocationTrace trace)
+        {
+            return fanOut.add(function, IdentifierQueryRequestSplitter.split(request), trace);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package at.steell.spring.rest.utils.invoker;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.InvocationTrace.ChunkTrace;
+
+/**
+ * {@link InvocationListener} logging a single line for every invocation exceeding a threshold. The line contains the
+ * fan out breakdown of the invocation and the call site the invocation was issued from, as captured by the
+ * {@link ExecutionContext}. Invocations below the threshold only cost a comparison, the log line and the call site are
+ * formatted for slow invocations only.
+ */
+public class SlowInvocationLogger implements InvocationListener
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SlowInvocationLogger.class);
+
+    private final long thresholdNanos;
+
+    /**
+     * Constructs the logger
+     *
+     * @param threshold the duration an invocation has to exceed to get logged
+     * @param unit the time unit of the threshold
+     */
+    public SlowInvocationLogger(final long threshold, final TimeUnit unit)
+    {
+        if (threshold < 0)
+        {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+    }
+
+    @Override
+    public void invocationCompleted(final String client, final String function, final InvocationTrace trace,
+        final Throwable failure)
+    {
+        if (trace.getDurationNanos() <= thresholdNanos)
+        {
+            return;
+        }
+
+        final StringBuilder sb = new StringBuilder("slow invocation client=").append(client)
+            .append(" function=").append(function)
+            .append(" time=").append(millis(trace.getDurationNanos()))
+            .append(" ids=").append(trace.getIdCount())
+            .append(" chunks=").append(trace.getChunks().size())
+            .append(" failed=").append(failure != null);
+        final ChunkTrace slowest = trace.getSlowestChunk();
+        if (slowest != null)
+        {
+            sb.append(" slowestChunk.ids=").append(slowest.getIdCount())
+                .append(" slowestChunk.attempts=").append(slowest.getAttempts())
+                .append(" slowestChunk.queueWait=").append(millis(slowest.getQueueWaitNanos()))
+                .append(" slowestChunk.run=").append(millis(slowest.getRunNanos()))
+                .append(" slowestChunk.latency=")
+                .append(millis(slowest.getQueueWaitNanos() + slowest.getRunNanos()));
+        }
+        sb.append(" callSite=").append(trace.getCallSite());
+        log(sb.toString());
+    }
+
+    /**
+     * Writes the line of a slow invocation, by default as warning
+     *
+     * @param line the formatted line
+     */
+    protected void log(final String line)
+    {
+        LOG.warn(line);
+    }
+
+    public long getThresholdNanos()
+    {
+        return thresholdNanos;
+    }
+
+    private static String millis(final long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+    }
+}
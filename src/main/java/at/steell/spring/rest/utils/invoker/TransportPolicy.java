@@ -0,0 +1,118 @@
+package at.steell.spring.rest.utils.invoker;
+
+/**
+ * Configuration of the transport used by {@link AbstractClientInvoker} for client functions offering both, a query
+ * function taking the identifiers in the URL and a body function taking them in the request body (e.g. a POST search
+ * endpoint). Lookups of up to the configured threshold of identifiers always use the cacheable query function, which
+ * is split into URL sized chunks. Larger lookups use the body function, split into chunks of at most the configured
+ * amount of identifiers, unless the measured cost per identifier of the query transport is lower. To keep the
+ * measured costs current, every n-th large lookup probes the transport not preferred at that time.
+ */
+public class TransportPolicy
+{
+    /** the default amount of identifiers up to which the query transport is always used */
+    public static final int DEFAULT_BODY_THRESHOLD = 100;
+    /** the default maximum amount of identifiers sent in a single body request */
+    public static final int DEFAULT_MAX_BODY_IDS = 1000;
+    /** the default interval of large lookups probing the transport not preferred */
+    public static final int DEFAULT_PROBE_INTERVAL = 20;
+    /** the default amount of cost samples required per transport before comparing costs */
+    public static final int DEFAULT_MIN_SAMPLES = 5;
+
+    private final int bodyThreshold;
+    private final int maxBodyIds;
+    private final int probeInterval;
+    private final int minSamples;
+
+    /**
+     * Constructs the policy with default values
+     */
+    public TransportPolicy()
+    {
+        this(DEFAULT_BODY_THRESHOLD, DEFAULT_MAX_BODY_IDS, DEFAULT_PROBE_INTERVAL, DEFAULT_MIN_SAMPLES);
+    }
+
+    /**
+     * Constructs the policy
+     *
+     * @param bodyThreshold the amount of identifiers up to which the query transport is always used
+     * @param maxBodyIds the maximum amount of identifiers sent in a single body request
+     * @param probeInterval the interval of large lookups probing the transport not preferred, <code>0</code>
+     *     disables probing
+     * @param minSamples the amount of cost samples required per transport before comparing costs
+     */
+    public TransportPolicy(final int bodyThreshold, final int maxBodyIds, final int probeInterval,
+        final int minSamples)
+    {
+        if (bodyThreshold < 0)
+        {
+            throw new IllegalArgumentException("bodyThreshold must not be negative");
+        }
+        if (maxBodyIds <= 0)
+        {
+            throw new IllegalArgumentException("maxBodyIds has to be greater than 0");
+        }
+        if (probeInterval < 0)
+        {
+            throw new IllegalArgumentException("probeInterval must not be negative");
+        }
+        this.bodyThreshold = bodyThreshold;
+        this.maxBodyIds = maxBodyIds;
+        this.probeInterval = probeInterval;
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    /**
+     * Decides whether a lookup uses the body transport
+     *
+     * @param idCount the amount of identifiers looked up
+     * @param queryCost the {@link LatencyTracker} of the cost per identifier of large lookups using the query transport
+     * @param bodyCost the {@link LatencyTracker} of the cost per identifier of large lookups using the body transport
+     * @param sequence the sequence number of the large lookup, used to pick probing lookups
+     * @return <code>true</code> in case the body transport is used
+     */
+    public boolean useBody(final int idCount, final LatencyTracker queryCost, final LatencyTracker bodyCost,
+        final long sequence)
+    {
+        if (idCount <= bodyThreshold)
+        {
+            return false;
+        }
+        final boolean preferBody = queryCost.getSampleCount() < minSamples || bodyCost.getSampleCount() < minSamples
+            || bodyCost.percentile(0.5) <= queryCost.percentile(0.5);
+        final boolean probe = probeInterval > 0 && sequence % probeInterval == probeInterval - 1;
+        return preferBody != probe;
+    }
+
+    /**
+     * Checks if a lookup of the given amount of identifiers is large, which is the case if the transport is chosen
+     * by costs and its cost is tracked
+     *
+     * @param idCount the amount of identifiers looked up
+     * @return <code>true</code> in case the lookup is large
+     */
+    public boolean isLarge(final int idCount)
+    {
+        return idCount > bodyThreshold;
+    }
+
+    public int getBodyThreshold()
+    {
+        return bodyThreshold;
+    }
+
+    public int getMaxBodyIds()
+    {
+        return maxBodyIds;
+    }
+
+    public int getProbeInterval()
+    {
+        return probeInterval;
+    }
+
+    public int getMinSamples()
+    {
+        return minSamples;
+    }
+}
@@ -0,0 +1,108 @@
+package at.steell.spring.rest.utils.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.AdaptiveConcurrencyLimit;
+import at.steell.spring.rest.utils.invoker.InvocationListener;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.InvocationTrace.ChunkTrace;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer binder instrumenting an {@link AbstractClientInvoker}. Invocations, chunk latency, chunks per invocation
+ * and identifiers per chunk are recorded per client function, tagged by <code>client</code> and <code>function</code>.
+ * Meters are created once per function, so recording an invocation only needs a single map lookup.
+ */
+public class ClientInvokerMetrics implements MeterBinder, InvocationListener
+{
+    private final AbstractClientInvoker<?> invoker;
+    private final Tags tags;
+    private final ConcurrentMap<String, FunctionMeters> meters = new ConcurrentHashMap<>();
+    private MeterRegistry registry;
+
+    /**
+     * Constructs the binder
+     *
+     * @param invoker the invoker to instrument
+     * @param tags additional tags
+     */
+    public ClientInvokerMetrics(final AbstractClientInvoker<?> invoker, final Iterable<Tag> tags)
+    {
+        this.invoker = invoker;
+        this.tags = Tags.of(tags);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry meterRegistry)
+    {
+        this.registry = meterRegistry;
+        Gauge.builder("rest.invoker.concurrency.limit", invoker, ClientInvokerMetrics::getConcurrencyLimit)
+            .description("The adaptive limit of chunks in flight against the client")
+            .tags(tags).tag("client", invoker.getClass().getSimpleName()).register(meterRegistry);
+        invoker.addInvocationListener(this);
+    }
+
+    @Override
+    public void invocationCompleted(final String client, final String function, final InvocationTrace trace,
+        final Throwable failure)
+    {
+        final FunctionMeters functionMeters = meters.computeIfAbsent(function,
+            name -> new FunctionMeters(tags.and("client", client, "function", name)));
+
+        (failure == null ? functionMeters.invocations : functionMeters.failedInvocations)
+            .record(trace.getDurationNanos(), TimeUnit.NANOSECONDS);
+        functionMeters.chunksPerInvocation.record(trace.getChunks().size());
+        for (final ChunkTrace chunk : trace.getChunks())
+        {
+            functionMeters.idsPerChunk.record(chunk.getIdCount());
+            functionMeters.chunkWait.record(chunk.getQueueWaitNanos(), TimeUnit.NANOSECONDS);
+            functionMeters.chunkExecution.record(chunk.getRunNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static double getConcurrencyLimit(final AbstractClientInvoker<?> clientInvoker)
+    {
+        final AdaptiveConcurrencyLimit limit = clientInvoker.getConcurrencyLimit();
+        return limit == null ? Double.NaN : limit.getLimit();
+    }
+
+    /**
+     * The meters of a single client function
+     */
+    private final class FunctionMeters
+    {
+        private final Timer invocations;
+        private final Timer failedInvocations;
+        private final Timer chunkWait;
+        private final Timer chunkExecution;
+        private final DistributionSummary chunksPerInvocation;
+        private final DistributionSummary idsPerChunk;
+
+        private FunctionMeters(final Tags functionTags)
+        {
+            invocations = Timer.builder("rest.invoker.invocation").description("The duration of invocations")
+                .tags(functionTags).tag("outcome", "success").publishPercentileHistogram().register(registry);
+            failedInvocations = Timer.builder("rest.invoker.invocation").description("The duration of invocations")
+                .tags(functionTags).tag("outcome", "failure").publishPercentileHistogram().register(registry);
+            chunkWait = Timer.builder("rest.invoker.chunk.wait").description("The time chunks wait in the queue")
+                .tags(functionTags).publishPercentileHistogram().register(registry);
+            chunkExecution = Timer.builder("rest.invoker.chunk.execution").description("The time chunks run")
+                .tags(functionTags).publishPercentileHistogram().register(registry);
+            chunksPerInvocation = DistributionSummary.builder("rest.invoker.chunks")
+                .description("The amount of chunks per invocation").tags(functionTags)
+                .publishPercentileHistogram().register(registry);
+            idsPerChunk = DistributionSummary.builder("rest.invoker.chunk.ids")
+                .description("The amount of identifiers per chunk").tags(functionTags)
+                .publishPercentileHistogram().register(registry);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package at.steell.spring.rest.utils.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import at.steell.spring.rest.utils.thread.ContextAwareFutureTask;
+import at.steell.spring.rest.utils.thread.TaskListener;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer binder instrumenting a {@link ThreadPoolExecutorImpl}. Besides gauges for the queue depth, active and
+ * pooled workers, the time tasks wait in the queue and the time they run are recorded via a {@link TaskListener}.
+ */
+public class ThreadPoolExecutorMetrics implements MeterBinder, TaskListener
+{
+    private final ThreadPoolExecutorImpl executor;
+    private final Tags tags;
+    private Timer waitTimer;
+    private Timer executionTimer;
+
+    /**
+     * Constructs the binder
+     *
+     * @param executor the executor to instrument
+     * @param name the name of the executor, used as <code>name</code> tag
+     * @param tags additional tags
+     */
+    public ThreadPoolExecutorMetrics(final ThreadPoolExecutorImpl executor, final String name,
+        final Iterable<Tag> tags)
+    {
+        this.executor = executor;
+        this.tags = Tags.concat(tags, "name", name);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry)
+    {
+        Gauge.builder("rest.executor.queued", executor, e -> e.getQueue().size())
+            .description("The amount of tasks waiting in the queue").tags(tags).register(registry);
+        Gauge.builder("rest.executor.active", executor, ThreadPoolExecutorImpl::getActiveCount)
+            .description("The amount of workers running a task").tags(tags).register(registry);
+        Gauge.builder("rest.executor.pool.size", executor, ThreadPoolExecutorImpl::getPoolSize)
+            .description("The current amount of workers").tags(tags).register(registry);
+        Gauge.builder("rest.executor.core.size", executor, ThreadPoolExecutorImpl::getCorePoolSize)
+            .description("The amount of workers the pool is sized to, see ElasticPoolSizer").tags(tags)
+            .register(registry);
+
+        waitTimer = Timer.builder("rest.executor.wait").description("The time tasks wait in the queue")
+            .tags(tags).publishPercentileHistogram().register(registry);
+        executionTimer = Timer.builder("rest.executor.execution").description("The time tasks run")
+            .tags(tags).publishPercentileHistogram().register(registry);
+        executor.addTaskListener(this);
+    }
+
+    @Override
+    public void taskStarted(final ContextAwareFutureTask<?, ?> task, final long queueWaitNanos)
+    {
+        waitTimer.record(queueWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void taskCompleted(final ContextAwareFutureTask<?, ?> task, final long runNanos)
+    {
+        executionTimer.record(runNanos, TimeUnit.NANOSECONDS);
+    }
+}
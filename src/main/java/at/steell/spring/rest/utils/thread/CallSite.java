@@ -0,0 +1,112 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * The call site an invocation is issued from. Capturing a call site only collects the frames of the current thread,
+ * filtering and formatting them is deferred until {@link #format()} is actually called.
+ * <p>
+ * In case the <code>spring-rest-utils-java11</code> module is on the class path, a call site is captured by its
+ * <code>StackWalker</code>, which only walks the frames up to {@link #MAX_FRAMES} frames outside of this library.
+ * Otherwise the whole stack is captured by a {@link Throwable}.
+ */
+abstract class CallSite
+{
+    /** the maximum amount of frames outside of this library kept per call site */
+    static final int MAX_FRAMES = 16;
+
+    private static final String FRAMEWORK_PACKAGE = "at.steell.spring.rest.utils.";
+    private static final String STACK_WALKER_CAPTURE = "at.steell.spring.rest.utils.thread.StackWalkerCapture";
+    private static final Supplier<CallSite> CAPTURE = createCapture();
+
+    private volatile String formatted;
+
+    /**
+     * Captures the call site of the current thread
+     *
+     * @return the captured {@link CallSite}
+     */
+    static CallSite capture()
+    {
+        return CAPTURE.get();
+    }
+
+    /**
+     * @return the captured frames, from the innermost to the outermost one
+     */
+    abstract StackTraceElement[] getFrames();
+
+    /**
+     * Formats the frames outside of this library, the result is computed once
+     *
+     * @return the formatted call site
+     */
+    String format()
+    {
+        String result = formatted;
+        if (result == null)
+        {
+            result = Arrays.stream(getFrames())
+                .filter(element -> isCaller(element.getClassName(), element.getMethodName()))
+                .limit(MAX_FRAMES)
+                .map(CallSite::format)
+                .collect(Collectors.joining(" <- "));
+            formatted = result;
+        }
+        return result;
+    }
+
+    /**
+     * @param className the class name of a frame
+     * @param methodName the method name of a frame
+     * @return <code>true</code> in case the frame is part of the call site, frames of this library, synthetic frames
+     *     and frames of aspects are excluded to show the real usage
+     */
+    static boolean isCaller(final String className, final String methodName)
+    {
+        return !className.startsWith(FRAMEWORK_PACKAGE)
+            && !methodName.contains("$")
+            && !className.contains("$")
+            && !className.contains(".aspects.");
+    }
+
+    private static String format(final StackTraceElement element)
+    {
+        final String trace = String.format("%s.%s", element.getClassName(), element.getMethodName());
+        if (element.getLineNumber() > 0)
+        {
+            return String.format("%s(%s:%d)", trace, element.getFileName(), element.getLineNumber());
+        }
+        return trace + "(?:?)";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<CallSite> createCapture()
+    {
+        try
+        {
+            return (Supplier<CallSite>) Class.forName(STACK_WALKER_CAPTURE).getDeclaredConstructor().newInstance();
+        }
+        catch (final ReflectiveOperationException | LinkageError e)
+        {
+            /* java11 module not on the class path or running on Java 8 */
+            return ThrowableCallSite::new;
+        }
+    }
+
+    /**
+     * Call site captured by a {@link Throwable}, the stack trace is only materialized when formatted
+     */
+    private static final class ThrowableCallSite extends CallSite
+    {
+        private final Throwable throwable = new Throwable();
+
+        @Override
+        StackTraceElement[] getFrames()
+        {
+            return throwable.getStackTrace();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package at.steell.spring.rest.utils.thread;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
 import at.steell.spring.rest.utils.dto.TypedResponse;
 import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
 
@@ -27,4 +31,62 @@ public interface ContextAwareExecutor
         List<ContextAwareCallable<RESPONSE, ID>> callables) throws InterruptedException;
     //CHECKSTYLE:ON
 
+    /**
+     * submit a single restcall wrapped in a contextawarecallable. The default implementation runs the restcall by
+     * {@link #invokeAll(List)} and returns once it is done, so restcalls of executors not overriding this method do
+     * not overlap, e.g. slow chunks are not hedged.
+     *
+     * @param callable restcall to execute
+     * @param completionListener listener notified once the restcall is done, may be <code>null</code>
+     * @return the submitted task
+     */
+    //CHECKSTYLE:OFF too long generics
+    default <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> ContextAwareFutureTask<RESPONSE, ID> submit(
+        final ContextAwareCallable<RESPONSE, ID> callable,
+        final Consumer<ContextAwareFutureTask<RESPONSE, ID>> completionListener)
+    //CHECKSTYLE:ON
+    {
+        final ContextAwareFutureTask<RESPONSE, ID> task = new ContextAwareFutureTask<>(callable, completionListener);
+        final Function<IdentifierQueryRequest<ID>, TypedResponse<RESPONSE>> run = request ->
+        {
+            task.run();
+            return null;
+        };
+        final ContextAwareCallable<RESPONSE, ID> runner = new ContextAwareCallable<>(run, callable.getRequest(),
+            callable.getContext(), null, callable.getPriority());
+        try
+        {
+            invokeAll(Collections.singletonList(runner));
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    /**
+     * check if the current thread is a worker of this executor, which is the case for restcalls invoked from within
+     * another restcall. The default implementation does not know its workers.
+     *
+     * @return <code>true</code> if the current thread is a worker of this executor
+     */
+    default boolean isWorkerThread()
+    {
+        return false;
+    }
+
+    /**
+     * run the given task in the current thread, in case it is still waiting for execution. The task is run without
+     * setting up its context, as the task is expected to be created by the current thread.
+     *
+     * @param task the task to run
+     * @return <code>true</code> if the task was run, <code>false</code> if it is already running or done, or this
+     *     executor does not support running tasks inline, which is the default
+     */
+    default boolean runInline(final ContextAwareFutureTask<?, ?> task)
+    {
+        return false;
+    }
 }
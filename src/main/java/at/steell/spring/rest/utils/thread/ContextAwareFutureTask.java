@@ -2,6 +2,7 @@ package at.steell.spring.rest.utils.thread;
 
 import java.io.Serializable;
 import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
 
 import at.steell.spring.rest.utils.dto.TypedResponse;
 import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
@@ -17,6 +18,10 @@ public class ContextAwareFutureTask<RESPONSE extends Serializable, ID extends Se
     extends FutureTask<TypedResponse<RESPONSE>>
 {
     private final ContextAwareCallable<RESPONSE, ID> callable;
+    private final Consumer<ContextAwareFutureTask<RESPONSE, ID>> completionListener;
+    private final long submitNanos = System.nanoTime();
+    private volatile long startNanos;
+    private volatile long doneNanos;
 
     /**
      * Constructs the future task, type safe for {@link ContextAwareCallable<RESPONSE, ID>}
@@ -24,13 +29,78 @@ public class ContextAwareFutureTask<RESPONSE extends Serializable, ID extends Se
      * @param callable the callable to be used
      */
     public ContextAwareFutureTask(final ContextAwareCallable<RESPONSE, ID> callable)
+    {
+        this(callable, null);
+    }
+
+    /**
+     * Constructs the future task, type safe for {@link ContextAwareCallable<RESPONSE, ID>}
+     *
+     * @param callable the callable to be used
+     * @param completionListener the listener notified once the task is done, may be <code>null</code>
+     */
+    public ContextAwareFutureTask(final ContextAwareCallable<RESPONSE, ID> callable,
+        final Consumer<ContextAwareFutureTask<RESPONSE, ID>> completionListener)
     {
         super(callable);
         this.callable = callable;
+        this.completionListener = completionListener;
     }
 
     public ContextAwareCallable<RESPONSE, ID> getCallable()
     {
         return callable;
     }
+
+    /**
+     * Records the start time before running the task<br />
+     * {@inheritDoc}
+     */
+    @Override
+    public void run()
+    {
+        if (!isDone())
+        {
+            startNanos = System.nanoTime();
+        }
+        super.run();
+    }
+
+    /**
+     * Records the completion time and notifies the completion listener<br />
+     * {@inheritDoc}
+     */
+    @Override
+    protected void done()
+    {
+        doneNanos = System.nanoTime();
+        if (completionListener != null)
+        {
+            completionListener.accept(this);
+        }
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the task was created at
+     */
+    public long getSubmitNanos()
+    {
+        return submitNanos;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the task started running at, or <code>0</code> if not started yet
+     */
+    public long getStartNanos()
+    {
+        return startNanos;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the task was completed at, or <code>0</code> if not done yet
+     */
+    public long getDoneNanos()
+    {
+        return doneNanos;
+    }
 }
@@ -0,0 +1,32 @@
+package at.steell.spring.rest.utils.thread;
+
+/**
+ * SPI for propagating thread bound context information (e.g. locale, security context or logging context) from the
+ * thread issuing a REST invocation to the threads executing its requests. A snapshot of the context is captured once
+ * per invocation and shared by all of its requests, so restoring it must not modify the captured value.
+ *
+ * @param <S> the type of the captured context snapshot
+ * @see ContextPropagators
+ * @see ContextSnapshot
+ */
+public interface ContextPropagator<S>
+{
+    /**
+     * Captures the context of the current thread. Called once per invocation in the invoking thread.
+     *
+     * @return the captured context, may be <code>null</code>
+     */
+    S capture();
+
+    /**
+     * Restores the given context in the current thread. Called before every request in the executing thread.
+     *
+     * @param snapshot the context as returned by {@link #capture()}
+     */
+    void restore(S snapshot);
+
+    /**
+     * Clears the context of the current thread. Called after every request in the executing thread.
+     */
+    void clear();
+}
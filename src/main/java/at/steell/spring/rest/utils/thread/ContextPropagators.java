@@ -0,0 +1,161 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Registry of the {@link ContextPropagator} instances used to capture a {@link ContextSnapshot}. By default the
+ * {@link #LOCALE}, {@link #SECURITY} and {@link #EXECUTION_CONTEXT} propagators are registered.
+ */
+public final class ContextPropagators
+{
+    /** propagates the {@link LocaleContext} of {@link LocaleContextHolder} */
+    public static final ContextPropagator<LocaleContext> LOCALE = new LocalePropagator();
+    /** propagates the {@link SecurityContext} of {@link SecurityContextHolder} */
+    public static final ContextPropagator<SecurityContext> SECURITY = new SecurityPropagator();
+    /** propagates the {@link ExecutionContext}, starting one in the invoking thread if necessary */
+    public static final ContextPropagator<ExecutionContext> EXECUTION_CONTEXT = new ExecutionContextPropagator();
+    /** propagates the SLF4J {@link MDC}, not registered by default */
+    public static final ContextPropagator<Map<String, String>> MDC_CONTEXT = new MdcPropagator();
+
+    private static volatile ContextPropagator<?>[] propagators = {LOCALE, SECURITY, EXECUTION_CONTEXT};
+
+    /**
+     * Registers an additional propagator
+     *
+     * @param propagator the propagator to be registered
+     */
+    public static synchronized void register(final ContextPropagator<?> propagator)
+    {
+        if (Arrays.asList(propagators).contains(propagator))
+        {
+            return;
+        }
+        final ContextPropagator<?>[] registered = Arrays.copyOf(propagators, propagators.length + 1);
+        registered[propagators.length] = propagator;
+        propagators = registered;
+    }
+
+    /**
+     * Unregisters the given propagator
+     *
+     * @param propagator the propagator to be unregistered
+     */
+    public static synchronized void unregister(final ContextPropagator<?> propagator)
+    {
+        propagators = Arrays.stream(propagators).filter(registered -> registered != propagator)
+            .toArray(ContextPropagator<?>[]::new);
+    }
+
+    /**
+     * @return the registered propagators, the returned array must not be modified
+     */
+    static ContextPropagator<?>[] getPropagators()
+    {
+        return propagators;
+    }
+
+    /** prevent instantiation */
+    private ContextPropagators()
+    {
+    }
+
+    /**
+     * Propagates the {@link LocaleContext} instance itself, so restoring does not need to create a new one
+     */
+    private static final class LocalePropagator implements ContextPropagator<LocaleContext>
+    {
+        @Override
+        public LocaleContext capture()
+        {
+            return LocaleContextHolder.getLocaleContext();
+        }
+
+        @Override
+        public void restore(final LocaleContext snapshot)
+        {
+            LocaleContextHolder.setLocaleContext(snapshot);
+        }
+
+        @Override
+        public void clear()
+        {
+            LocaleContextHolder.resetLocaleContext();
+        }
+    }
+
+    /**
+     * Propagates the {@link SecurityContext} instance itself, so restoring does not need to create a new one
+     */
+    private static final class SecurityPropagator implements ContextPropagator<SecurityContext>
+    {
+        @Override
+        public SecurityContext capture()
+        {
+            return SecurityContextHolder.getContext();
+        }
+
+        @Override
+        public void restore(final SecurityContext snapshot)
+        {
+            SecurityContextHolder.setContext(snapshot);
+        }
+
+        @Override
+        public void clear()
+        {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static final class ExecutionContextPropagator implements ContextPropagator<ExecutionContext>
+    {
+        @Override
+        public ExecutionContext capture()
+        {
+            return ExecutionContext.start();
+        }
+
+        @Override
+        public void restore(final ExecutionContext snapshot)
+        {
+            ExecutionContext.set(snapshot);
+        }
+
+        @Override
+        public void clear()
+        {
+            ExecutionContext.clear();
+        }
+    }
+
+    private static final class MdcPropagator implements ContextPropagator<Map<String, String>>
+    {
+        @Override
+        public Map<String, String> capture()
+        {
+            return MDC.getCopyOfContextMap();
+        }
+
+        @Override
+        public void restore(final Map<String, String> snapshot)
+        {
+            if (snapshot != null)
+            {
+                MDC.setContextMap(snapshot);
+            }
+        }
+
+        @Override
+        public void clear()
+        {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the context captured by all registered {@link ContextPropagator} instances. A snapshot is
+ * captured once per invocation and shared by all requests of that invocation. Restoring and clearing a snapshot does
+ * not allocate any objects.
+ */
+public final class ContextSnapshot
+{
+    private final ContextPropagator<?>[] propagators;
+    private final Object[] values;
+
+    private ContextSnapshot(final ContextPropagator<?>[] propagators, final Object[] values)
+    {
+        this.propagators = propagators;
+        this.values = values;
+    }
+
+    /**
+     * Captures the context of the current thread using the {@link ContextPropagators#getPropagators() registered
+     * propagators}
+     *
+     * @return the captured snapshot
+     */
+    public static ContextSnapshot capture()
+    {
+        final ContextPropagator<?>[] propagators = ContextPropagators.getPropagators();
+        final Object[] values = new Object[propagators.length];
+        for (int i = 0; i < propagators.length; i++)
+        {
+            values[i] = propagators[i].capture();
+        }
+        return new ContextSnapshot(propagators, values);
+    }
+
+    /**
+     * Creates a copy of this snapshot with the value of the given propagator replaced. In case the propagator is not
+     * part of this snapshot, this snapshot is returned.
+     *
+     * @param propagator the propagator to replace the value for
+     * @param value the new value
+     * @param <S> the type of the value
+     * @return the snapshot containing the given value
+     */
+    public <S> ContextSnapshot with(final ContextPropagator<S> propagator, final S value)
+    {
+        for (int i = 0; i < propagators.length; i++)
+        {
+            if (propagators[i] == propagator)
+            {
+                final Object[] copy = Arrays.copyOf(values, values.length);
+                copy[i] = value;
+                return new ContextSnapshot(propagators, copy);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param propagator the propagator to get the captured value of
+     * @param <S> the type of the value
+     * @return the value captured by the given propagator, or <code>null</code> in case the propagator is not part of
+     *     this snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public <S> S get(final ContextPropagator<S> propagator)
+    {
+        for (int i = 0; i < propagators.length; i++)
+        {
+            if (propagators[i] == propagator)
+            {
+                return (S) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Restores the captured context in the current thread
+     */
+    @SuppressWarnings("unchecked")
+    public void restore()
+    {
+        for (int i = 0; i < propagators.length; i++)
+        {
+            ((ContextPropagator<Object>) propagators[i]).restore(values[i]);
+        }
+    }
+
+    /**
+     * Clears the context of the current thread, in reverse order of restoring it
+     */
+    public void clear()
+    {
+        for (int i = propagators.length - 1; i >= 0; i--)
+        {
+            propagators[i].clear();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Elastic sizing of a {@link ThreadPoolExecutorImpl} within configured bounds. Once per sizing interval, the amount of
+ * workers needed is derived from the observed rate of started tasks and their average run time by Little's law
+ * (<code>workers = rate * run time</code>), divided by a target utilization of {@value #TARGET_UTILIZATION} to leave
+ * headroom for bursts. Besides, as soon as a task waited longer than the configured maximum queue wait, the pool grows
+ * by one worker right away. To give an added worker the chance to drain the queue, the pool grows by at most one worker
+ * per maximum queue wait. Workers exceeding the current size time out after being idle for one sizing interval.
+ * <p>
+ * The sizer registers itself as {@link TaskListener} of the executor. Sizing is driven by a single daemon timer thread,
+ * so an idle pool shrinks even if no task completes anymore. The current size and the last {@link Decision} are
+ * exposed for monitoring. Closing the sizer stops sizing and keeps the current size.
+ */
+public class ElasticPoolSizer implements TaskListener, AutoCloseable
+{
+    /** the default sizing interval, in milliseconds */
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    /** the default maximum time a task may wait in the queue before the pool grows, in milliseconds */
+    public static final long DEFAULT_MAX_QUEUE_WAIT_MILLIS = 50;
+    /** the utilization of the workers the pool is sized for */
+    public static final double TARGET_UTILIZATION = 0.75;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElasticPoolSizer.class);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ThreadPoolExecutorImpl executor;
+    private final int minSize;
+    private final int maxSize;
+    private final long intervalNanos;
+    private final long maxQueueWaitNanos;
+    private final ScheduledExecutorService timer;
+    private long intervalStart = System.nanoTime();
+    private long lastGrowth = intervalStart;
+    private long started;
+    private long completed;
+    private long runNanos;
+    private long averageRunNanos;
+    private volatile Decision lastDecision;
+    private volatile long decisionCount;
+
+    /**
+     * Constructs the sizer with a sizing interval of {@value #DEFAULT_INTERVAL_MILLIS} and a maximum queue wait of
+     * {@value #DEFAULT_MAX_QUEUE_WAIT_MILLIS} milliseconds
+     *
+     * @param executor the executor to size
+     * @param minSize the minimum amount of workers kept, even if idle
+     * @param maxSize the maximum amount of workers
+     */
+    public ElasticPoolSizer(final ThreadPoolExecutorImpl executor, final int minSize, final int maxSize)
+    {
+        this(executor, minSize, maxSize, DEFAULT_INTERVAL_MILLIS, DEFAULT_MAX_QUEUE_WAIT_MILLIS,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs the sizer
+     *
+     * @param executor the executor to size
+     * @param minSize the minimum amount of workers kept, even if idle
+     * @param maxSize the maximum amount of workers
+     * @param interval the sizing interval, idle workers exceeding the current size time out after it as well
+     * @param maxQueueWait the maximum time a task may wait in the queue before the pool grows
+     * @param unit the time unit of interval and maximum queue wait
+     */
+    public ElasticPoolSizer(final ThreadPoolExecutorImpl executor, final int minSize, final int maxSize,
+        final long interval, final long maxQueueWait, final TimeUnit unit)
+    {
+        if (minSize <= 0)
+        {
+            throw new IllegalArgumentException("minSize has to be greater than 0");
+        }
+        if (maxSize < minSize)
+        {
+            throw new IllegalArgumentException("maxSize must not be less than minSize");
+        }
+        if (interval <= 0)
+        {
+            throw new IllegalArgumentException("interval has to be greater than 0");
+        }
+        this.executor = executor;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.intervalNanos = unit.toNanos(interval);
+        this.maxQueueWaitNanos = unit.toNanos(maxQueueWait);
+        this.lastGrowth = intervalStart - maxQueueWaitNanos;
+
+        executor.setKeepAliveTime(interval, unit);
+        final int size = Math.max(minSize, Math.min(maxSize, executor.getCorePoolSize()));
+        if (maxSize >= executor.getCorePoolSize())
+        {
+            executor.setMaximumPoolSize(maxSize);
+            executor.setCorePoolSize(size);
+        }
+        else
+        {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(maxSize);
+        }
+        executor.addTaskListener(this);
+        timer = Executors.newSingleThreadScheduledExecutor(task ->
+        {
+            final Thread thread = new Thread(task, "elastic-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(this::size, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void taskStarted(final ContextAwareFutureTask<?, ?> task, final long queueWaitNanos)
+    {
+        synchronized (this)
+        {
+            started++;
+        }
+        if (queueWaitNanos > maxQueueWaitNanos && executor.getCorePoolSize() < maxSize)
+        {
+            grow(queueWaitNanos);
+        }
+    }
+
+    @Override
+    public synchronized void taskCompleted(final ContextAwareFutureTask<?, ?> task, final long runNanos)
+    {
+        completed++;
+        this.runNanos += runNanos;
+    }
+
+    /**
+     * Stops sizing the pool, the current size is kept
+     */
+    @Override
+    public void close()
+    {
+        timer.shutdownNow();
+        executor.removeTaskListener(this);
+    }
+
+    /**
+     * @return the current amount of workers the pool is sized to
+     */
+    public int getSize()
+    {
+        return executor.getCorePoolSize();
+    }
+
+    public int getMinSize()
+    {
+        return minSize;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * @return the last {@link Decision} changing the size of the pool, <code>null</code> if the size did not change
+     *     yet
+     */
+    public Decision getLastDecision()
+    {
+        return lastDecision;
+    }
+
+    /**
+     * @return the amount of decisions changing the size of the pool
+     */
+    public long getDecisionCount()
+    {
+        return decisionCount;
+    }
+
+    private synchronized void grow(final long queueWaitNanos)
+    {
+        final long now = System.nanoTime();
+        final int size = executor.getCorePoolSize();
+        if (size < maxSize && now - lastGrowth >= maxQueueWaitNanos)
+        {
+            lastGrowth = now;
+            resize(new Decision(Reason.QUEUE_WAIT, size, size + 1, 0, 0, queueWaitNanos));
+        }
+    }
+
+    /**
+     * Sizes the pool by the tasks started and completed within the elapsed interval, called by the timer
+     */
+    private synchronized void size()
+    {
+        final long now = System.nanoTime();
+        final double rate = started * NANOS_PER_SECOND / Math.max(1, now - intervalStart);
+        if (completed > 0)
+        {
+            averageRunNanos = runNanos / completed;
+        }
+        intervalStart = now;
+        started = 0;
+        completed = 0;
+        runNanos = 0;
+
+        final double workers = Math.max(executor.getActiveCount(),
+            Math.ceil(rate * averageRunNanos / NANOS_PER_SECOND / TARGET_UTILIZATION));
+        final int target = (int) Math.max(minSize, Math.min(maxSize, workers));
+        final int size = executor.getCorePoolSize();
+        if (target != size)
+        {
+            resize(new Decision(Reason.LITTLES_LAW, size, target, rate, averageRunNanos, 0));
+        }
+    }
+
+    private void resize(final Decision decision)
+    {
+        executor.setCorePoolSize(decision.getNewSize());
+        lastDecision = decision;
+        decisionCount++;
+        LOG.debug("resized pool from {} to {} workers: {}", decision.getPreviousSize(), decision.getNewSize(),
+            decision);
+    }
+
+    /**
+     * The reason of a {@link Decision}
+     */
+    public enum Reason
+    {
+        /** sized by the observed rate and run time of tasks */
+        LITTLES_LAW,
+        /** grown because a task waited longer than the maximum queue wait */
+        QUEUE_WAIT
+    }
+
+    /**
+     * A decision changing the size of the pool
+     */
+    public static final class Decision
+    {
+        private final Reason reason;
+        private final int previousSize;
+        private final int newSize;
+        private final double rate;
+        private final long averageRunNanos;
+        private final long queueWaitNanos;
+
+        private Decision(final Reason reason, final int previousSize, final int newSize, final double rate,
+            final long averageRunNanos, final long queueWaitNanos)
+        {
+            this.reason = reason;
+            this.previousSize = previousSize;
+            this.newSize = newSize;
+            this.rate = rate;
+            this.averageRunNanos = averageRunNanos;
+            this.queueWaitNanos = queueWaitNanos;
+        }
+
+        public Reason getReason()
+        {
+            return reason;
+        }
+
+        public int getPreviousSize()
+        {
+            return previousSize;
+        }
+
+        public int getNewSize()
+        {
+            return newSize;
+        }
+
+        /**
+         * @return the observed rate of started tasks per second, <code>0</code> for {@link Reason#QUEUE_WAIT}
+         */
+        public double getRate()
+        {
+            return rate;
+        }
+
+        /**
+         * @return the observed average run time of tasks in nanoseconds, <code>0</code> for {@link Reason#QUEUE_WAIT}
+         */
+        public long getAverageRunNanos()
+        {
+            return averageRunNanos;
+        }
+
+        /**
+         * @return the queue wait of the task triggering growth in nanoseconds, <code>0</code> for
+         *     {@link Reason#LITTLES_LAW}
+         */
+        public long getQueueWaitNanos()
+        {
+            return queueWaitNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return reason + "[rate=" + rate + "/s, averageRunNanos=" + averageRunNanos + ", queueWaitNanos="
+                + queueWaitNanos + "]";
+        }
+    }
+}
@@ -1,21 +1,60 @@
 package at.steell.spring.rest.utils.thread;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 /**
  * A helper class to track the execution context of a REST invocation. This utility is needed because REST calls are
- * executed in different threads. Before a new thread is started by the thread pool, the current stack trace is recorded
- * in order to also log the caller reference to see where a REST call is originally issued.
+ * executed in different threads.
+ * <p>
+ * Every invocation started via {@link #startInvocation(String, int)} is traced as an {@link InvocationTrace}, forming a
+ * tree of invocations and their chunks for the current context. Before the requests of an invocation are handed to the
+ * thread pool, the call site is attached to its trace in order to also log the caller reference to see where a REST
+ * call is originally issued. Capturing a call site only collects the stack of the current thread, filtering and
+ * formatting it is deferred until {@link InvocationTrace#getCallSite()} is actually called, and capturing can be
+ * sampled via {@link #setSampleRate(int)}.
+ * <p>
+ * The {@link Priority} of a context applies to all chunks requested within it, including nested invocations.
+ * <p>
+ * Memos kept via {@link #getMemo(Object)} live as long as the context. As a context started via {@link #start()} may
+ * stay assigned to a pooled thread across requests, request scoped state like memos is only meant to be kept within
+ * a context opened via {@link #open()}, which is discarded as soon as its {@link Scope} is closed at the end of the
+ * request.
  *
  * @author Markus Jessenitschnig (XJM)
  */
 public class ExecutionContext
 {
-    private List<StackTraceElement> stacktrace = new ArrayList<>();
+    /** the maximum amount of most recent top level invocations traced per context */
+    public static final int MAX_INVOCATIONS = 64;
+
     private static ThreadLocal<ExecutionContext> contexts = new ThreadLocal<>();
+    private static volatile int sampleRate = 1;
+
+    private final Deque<InvocationTrace> invocations = new ArrayDeque<>();
+    private long invocationCount;
+    private volatile Priority priority = Priority.NORMAL;
+    private final ConcurrentMap<Object, ConcurrentMap<?, ?>> memos = new ConcurrentHashMap<>();
+    private final boolean scoped;
+
+    /**
+     * Constructs a context not bound to a {@link Scope}
+     */
+    public ExecutionContext()
+    {
+        this(false);
+    }
+
+    private ExecutionContext(final boolean scoped)
+    {
+        this.scoped = scoped;
+    }
 
     /**
      * Clears the execution context from the current thread
@@ -42,6 +81,26 @@ public class ExecutionContext
         return context;
     }
 
+    /**
+     * Opens a {@link Scope} for the current thread, e.g. for a single request, to be closed via try-with-resources. A
+     * fresh {@link ExecutionContext} is assigned to the current thread for the lifetime of the scope, the context
+     * assigned before is restored on close. If the current thread is already within a scope, that scope is joined and
+     * closing the returned one has no effect.
+     *
+     * @return the opened {@link Scope}
+     */
+    public static Scope open()
+    {
+        final ExecutionContext current = contexts.get();
+        if (current != null && current.scoped)
+        {
+            return new Scope(current, null, false);
+        }
+        final ExecutionContext context = new ExecutionContext(true);
+        contexts.set(context);
+        return new Scope(context, current, true);
+    }
+
     /**
      * @return The {@link ExecutionContext} which is currently assigned with the current thread ot null.
      */
@@ -61,55 +120,189 @@ public class ExecutionContext
     }
 
     /**
-     * Records the current stack trace
+     * Sets the sample rate of capturing call sites. A rate of <code>n</code> captures the call site of every n-th
+     * invocation per context, a rate of <code>0</code> disables capturing.
+     *
+     * @param rate the sample rate
      */
+    public static void setSampleRate(final int rate)
+    {
+        if (rate < 0)
+        {
+            throw new IllegalArgumentException("rate must not be negative");
+        }
+        sampleRate = rate;
+    }
+
+    /**
+     * Call sites are captured per invocation, see {@link InvocationTrace#getCallSite()}
+     *
+     * @deprecated the call site of an invocation is captured by {@link #startInvocation(String, int)}
+     */
+    @Deprecated
     public void recordStackTrace()
     {
-        stacktrace.addAll(computeStackTrace());
+        /* captured by startInvocation */
+    }
+
+    /**
+     * @return the {@link Priority} of the chunks requested within this context
+     */
+    public Priority getPriority()
+    {
+        return priority;
     }
 
     /**
-     * Prints the recorded stack trance
+     * Sets the priority of the chunks requested within this context, e.g. {@link Priority#BATCH} for a background job
      *
-     * @return The printed stack trance
+     * @param priority the {@link Priority} to apply
      */
-    public String printStackTrace()
+    public void setPriority(final Priority priority)
+    {
+        if (priority == null)
+        {
+            throw new IllegalArgumentException("priority must not be null");
+        }
+        this.priority = priority;
+    }
+
+    /**
+     * @return <code>true</code> in case this context was opened via {@link #open()}, so it is discarded at the end of
+     *     its {@link Scope}
+     */
+    public boolean isScoped()
+    {
+        return scoped;
+    }
+
+    /**
+     * Gets the memo of the given key, creating an empty one if necessary. Memos are shared by all threads the context
+     * is propagated to, and have neither an expiration nor a size limit, so they should only be kept in a context
+     * which {@link #isScoped() is scoped}.
+     *
+     * @param key the key of the memo, e.g. an invoker together with a function name
+     * @param <K> the key type of the memo
+     * @param <V> the value type of the memo
+     * @return the memo
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ConcurrentMap<K, V> getMemo(final Object key)
     {
-        List<StackTraceElement> toPrint = new ArrayList<>(stacktrace);
-        if (!toPrint.isEmpty())
+        return (ConcurrentMap<K, V>) memos.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Starts tracing an invocation, capturing the call site of the current thread if sampled. In case the current
+     * thread is running a chunk of another invocation, the new invocation is traced as a child of that chunk, otherwise
+     * as a top level invocation of this context.
+     *
+     * @param name the name of the invocation
+     * @param idCount the amount of identifiers requested
+     * @return the started {@link InvocationTrace}
+     */
+    public InvocationTrace startInvocation(final String name, final int idCount)
+    {
+        final int rate = sampleRate;
+        final boolean sampled;
+        synchronized (this)
+        {
+            sampled = rate != 0 && invocationCount++ % rate == 0;
+        }
+        final InvocationTrace invocation = new InvocationTrace(name, idCount, sampled ? CallSite.capture() : null);
+        final InvocationTrace.ChunkTrace parent = InvocationTrace.getCurrentChunk();
+        if (parent != null)
+        {
+            parent.addNested(invocation);
+        }
+        else
         {
-            return toPrint.stream().map(element ->
+            synchronized (this)
             {
-                String trace = String.format("%s.%s", element.getClassName(), element.getMethodName());
-                if (element.getLineNumber() > 0)
+                if (invocations.size() == MAX_INVOCATIONS)
                 {
-                    trace = String.format("%s(%s:%d)", trace, element.getFileName(), element.getLineNumber());
+                    invocations.removeFirst();
                 }
-                else
-                {
-                    trace = trace + "(?:?)";
-                }
-                return trace;
-            }).collect(Collectors.joining(" <- "));
+                invocations.addLast(invocation);
+            }
         }
-        return null;
+        return invocation;
+    }
 
+    /**
+     * @return the traces of the top level invocations of this context, from the oldest to the most recent one
+     */
+    public synchronized List<InvocationTrace> getInvocations()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(invocations));
     }
 
     /**
-     * Compute a reasonable stack trace for logging
+     * Exports the traces of all top level invocations of this context as a compact summary, one line per invocation
      *
-     * @return The string representing containing a reasonable stack trace for logging
+     * @return the summary
      */
-    private List<StackTraceElement> computeStackTrace()
+    public String printSummary()
     {
-        return Arrays.asList(Thread.currentThread().getStackTrace()).stream().filter(element ->
+        return getInvocations().stream().map(InvocationTrace::toSummary).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Prints the call site of the most recent top level invocation of this context
+     *
+     * @return The printed call site, or <code>null</code> in case no call site was captured
+     * @deprecated the call site of an invocation is available by {@link InvocationTrace#getCallSite()}
+     */
+    @Deprecated
+    public String printStackTrace()
+    {
+        final List<InvocationTrace> traces = getInvocations();
+        return traces.isEmpty() ? null : traces.get(traces.size() - 1).getCallSite();
+    }
+
+    /**
+     * The scope of an {@link ExecutionContext} opened via {@link ExecutionContext#open()}
+     */
+    public static final class Scope implements AutoCloseable
+    {
+        private final ExecutionContext context;
+        private final ExecutionContext previous;
+        private final boolean owner;
+
+        private Scope(final ExecutionContext context, final ExecutionContext previous, final boolean owner)
         {
-            /* exclude some framework packages to so the real usage */
-            return !element.getClassName().startsWith("at.steell.spring.rest.utils")
-                && !element.getMethodName().contains("$")
-                && !element.getClassName().contains("$")
-                && !element.getClassName().contains(".aspects.");
-        }).collect(Collectors.toList());
+            this.context = context;
+            this.previous = previous;
+            this.owner = owner;
+        }
+
+        /**
+         * @return the {@link ExecutionContext} of this scope
+         */
+        public ExecutionContext getContext()
+        {
+            return context;
+        }
+
+        /**
+         * Discards the context of this scope and restores the context assigned before, unless this scope joined an
+         * outer one
+         */
+        @Override
+        public void close()
+        {
+            if (!owner)
+            {
+                return;
+            }
+            if (previous == null)
+            {
+                contexts.remove();
+            }
+            else
+            {
+                contexts.set(previous);
+            }
+        }
     }
 }
@@ -0,0 +1,297 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace of a single REST invocation, split into the traces of its chunks. Invocations issued from within a chunk (e.g.
+ * by a client function invoking another client invoker) are added as children of that chunk, which forms a tree of
+ * invocations per {@link ExecutionContext}. All timings are based on {@link System#nanoTime()}.
+ */
+public final class InvocationTrace
+{
+    private static final ThreadLocal<ChunkTrace> CURRENT_CHUNK = new ThreadLocal<>();
+
+    private final String name;
+    private final int idCount;
+    private final long startNanos = System.nanoTime();
+    private final List<ChunkTrace> chunks = new ArrayList<>();
+    private final CallSite callSite;
+    private volatile long endNanos;
+
+    /**
+     * Constructs the trace
+     *
+     * @param name the name of the invocation, e.g. the invoker
+     * @param idCount the amount of identifiers requested
+     * @param callSite the call site the invocation is issued from, <code>null</code> if not sampled
+     */
+    InvocationTrace(final String name, final int idCount, final CallSite callSite)
+    {
+        this.name = name;
+        this.idCount = idCount;
+        this.callSite = callSite;
+    }
+
+    /**
+     * @return the {@link ChunkTrace} of the chunk currently running in this thread, or <code>null</code>
+     */
+    static ChunkTrace getCurrentChunk()
+    {
+        return CURRENT_CHUNK.get();
+    }
+
+    /**
+     * Adds the trace of a chunk to this invocation
+     *
+     * @param chunkIdCount the amount of identifiers requested by the chunk
+     * @return the added {@link ChunkTrace}
+     */
+    public synchronized ChunkTrace addChunk(final int chunkIdCount)
+    {
+        final ChunkTrace chunk = new ChunkTrace(chunkIdCount);
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    /**
+     * Marks the end of this invocation
+     */
+    public void end()
+    {
+        endNanos = System.nanoTime();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getIdCount()
+    {
+        return idCount;
+    }
+
+    /**
+     * Formats the call site this invocation is issued from, the frames of this library are excluded
+     *
+     * @return the formatted call site, or <code>null</code> in case the call site was not sampled
+     */
+    public String getCallSite()
+    {
+        return callSite == null ? null : callSite.format();
+    }
+
+    /**
+     * @return the duration of the invocation in nanoseconds, or the time elapsed so far if not ended yet
+     */
+    public long getDurationNanos()
+    {
+        final long end = endNanos;
+        return (end == 0 ? System.nanoTime() : end) - startNanos;
+    }
+
+    /**
+     * @return the traces of all chunks
+     */
+    public synchronized List<ChunkTrace> getChunks()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(chunks));
+    }
+
+    /**
+     * @return the trace of the chunk with the longest run time, or <code>null</code> if there is no chunk
+     */
+    public ChunkTrace getSlowestChunk()
+    {
+        ChunkTrace slowest = null;
+        for (final ChunkTrace chunk : getChunks())
+        {
+            if (slowest == null || chunk.getRunNanos() > slowest.getRunNanos())
+            {
+                slowest = chunk;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * Exports this invocation and all nested invocations as a compact, single line summary. Instead of every chunk,
+     * only the maximum queue wait and the slowest chunk are part of the summary.
+     *
+     * @return the summary
+     */
+    public String toSummary()
+    {
+        final StringBuilder sb = new StringBuilder();
+        appendSummary(sb);
+        return sb.toString();
+    }
+
+    private void appendSummary(final StringBuilder sb)
+    {
+        final List<ChunkTrace> chunkTraces = getChunks();
+        long maxQueueWait = 0;
+        for (final ChunkTrace chunk : chunkTraces)
+        {
+            maxQueueWait = Math.max(maxQueueWait, chunk.getQueueWaitNanos());
+        }
+
+        sb.append(name).append("[ids=").append(idCount)
+            .append(" chunks=").append(chunkTraces.size())
+            .append(" time=").append(millis(getDurationNanos()))
+            .append(" maxQueueWait=").append(millis(maxQueueWait));
+        final ChunkTrace slowest = getSlowestChunk();
+        if (slowest != null)
+        {
+            sb.append(" slowest=(ids=").append(slowest.getIdCount())
+                .append(" results=").append(slowest.getResultCount())
+                .append(" attempts=").append(slowest.getAttempts())
+                .append(" queueWait=").append(millis(slowest.getQueueWaitNanos()))
+                .append(" run=").append(millis(slowest.getRunNanos())).append(')');
+        }
+        sb.append(']');
+
+        boolean first = true;
+        for (final ChunkTrace chunk : chunkTraces)
+        {
+            for (final InvocationTrace nested : chunk.getNested())
+            {
+                sb.append(first ? " {" : ", ");
+                nested.appendSummary(sb);
+                first = false;
+            }
+        }
+        if (!first)
+        {
+            sb.append('}');
+        }
+    }
+
+    private static String millis(final long nanos)
+    {
+        return String.format("%.1fms", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toSummary();
+    }
+
+    /**
+     * Trace of a single chunk of an invocation
+     */
+    public static final class ChunkTrace
+    {
+        private final int idCount;
+        private final List<InvocationTrace> nested = Collections.synchronizedList(new ArrayList<>(0));
+        private volatile long queueWaitNanos;
+        private volatile long runNanos;
+        private volatile int resultCount;
+        private volatile int attempts;
+        private volatile boolean failed;
+
+        private ChunkTrace(final int idCount)
+        {
+            this.idCount = idCount;
+        }
+
+        /**
+         * Marks this chunk as the one currently running in this thread, so invocations issued while running it are
+         * traced as its children
+         *
+         * @return the chunk previously running in this thread, to be passed to {@link #exit(ChunkTrace)}
+         */
+        public ChunkTrace enter()
+        {
+            final ChunkTrace previous = CURRENT_CHUNK.get();
+            CURRENT_CHUNK.set(this);
+            return previous;
+        }
+
+        /**
+         * Marks this chunk as no longer running in this thread
+         *
+         * @param previous the chunk returned by {@link #enter()}
+         */
+        public void exit(final ChunkTrace previous)
+        {
+            if (previous == null)
+            {
+                CURRENT_CHUNK.remove();
+            }
+            else
+            {
+                CURRENT_CHUNK.set(previous);
+            }
+        }
+
+        /**
+         * Records the completion of this chunk
+         *
+         * @param queueWait the time the answering request waited in the queue in nanoseconds
+         * @param run the time the answering request ran in nanoseconds
+         * @param results the amount of results, ignored in case the chunk failed
+         * @param attemptCount the amount of requests done for this chunk
+         * @param failure <code>true</code> in case the chunk failed
+         */
+        public void complete(final long queueWait, final long run, final int results, final int attemptCount,
+            final boolean failure)
+        {
+            this.queueWaitNanos = queueWait;
+            this.runNanos = run;
+            this.resultCount = results;
+            this.attempts = attemptCount;
+            this.failed = failure;
+        }
+
+        void addNested(final InvocationTrace invocation)
+        {
+            nested.add(invocation);
+        }
+
+        public int getIdCount()
+        {
+            return idCount;
+        }
+
+        public long getQueueWaitNanos()
+        {
+            return queueWaitNanos;
+        }
+
+        public long getRunNanos()
+        {
+            return runNanos;
+        }
+
+        public int getResultCount()
+        {
+            return resultCount;
+        }
+
+        public int getAttempts()
+        {
+            return attempts;
+        }
+
+        public boolean isFailed()
+        {
+            return failed;
+        }
+
+        /**
+         * @return the invocations issued while running this chunk
+         */
+        public List<InvocationTrace> getNested()
+        {
+            synchronized (nested)
+            {
+                return Collections.unmodifiableList(new ArrayList<>(nested));
+            }
+        }
+    }
+}
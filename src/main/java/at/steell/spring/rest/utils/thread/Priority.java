@@ -0,0 +1,25 @@
+package at.steell.spring.rest.utils.thread;
+
+/**
+ * Priority levels of the tasks executed by {@link ThreadPoolExecutorImpl}, ordered from the highest to the lowest
+ * priority. Queued tasks of a higher priority are executed ahead of queued tasks of a lower priority, see
+ * {@link PriorityTaskQueue}.
+ */
+public enum Priority
+{
+    /** requests a user is actively waiting for */
+    INTERACTIVE,
+    /** the default priority */
+    NORMAL,
+    /** background work, e.g. batch jobs or cache refreshes */
+    BATCH;
+
+    /**
+     * @return the priority of the {@link ExecutionContext} of the current thread, or {@link #NORMAL} if not set
+     */
+    public static Priority current()
+    {
+        final ExecutionContext context = ExecutionContext.get();
+        return context == null ? NORMAL : context.getPriority();
+    }
+}
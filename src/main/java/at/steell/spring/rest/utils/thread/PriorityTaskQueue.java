@@ -0,0 +1,471 @@
+package at.steell.spring.rest.utils.thread;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+
+import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
+
+/**
+ * Unbounded work queue of {@link ThreadPoolExecutorImpl}, ordering tasks by their {@link Priority}. To keep tasks of a
+ * low priority from starving, waiting tasks age: for every aging step a task waits, it is treated as one priority
+ * level higher. Tasks other than {@link ContextAwareFutureTask} instances are queued with {@link Priority#NORMAL}.
+ * <p>
+ * Within a priority level, tasks are grouped into flows, e.g. all chunks of a single invocation, and the flows are
+ * served round-robin, while the tasks of a flow are taken in FIFO order. So a huge fan-out queueing hundreds of chunks
+ * takes its fair share of workers only, and a small lookup queued afterwards waits for one chunk per active flow
+ * instead of all of them.
+ */
+public class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable>
+{
+    /** the default time a task waits before it is treated as one priority level higher, in milliseconds */
+    public static final long DEFAULT_AGING_MILLIS = 500;
+
+    /** groups the chunks of every invocation into a flow, as all chunks of an invocation share a context snapshot */
+    public static final Function<ContextAwareCallable<?, ?>, Object> PER_INVOCATION = ContextAwareCallable::getContext;
+    /** groups the chunks of every authenticated principal into a flow, unauthenticated chunks share a flow */
+    public static final Function<ContextAwareCallable<?, ?>, Object> PER_AUTHENTICATION = callable ->
+    {
+        final SecurityContext securityContext = callable.getContext().get(ContextPropagators.SECURITY);
+        final Authentication authentication = securityContext == null ? null : securityContext.getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    };
+
+    private static final Object SHARED_FLOW = new Object();
+
+    private final long agingNanos;
+    private final Function<ContextAwareCallable<?, ?>, Object> flowFunction;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Level[] levels;
+    private int count;
+
+    /**
+     * Constructs the queue with an aging step of {@value #DEFAULT_AGING_MILLIS} milliseconds and a flow per invocation
+     */
+    public PriorityTaskQueue()
+    {
+        this(DEFAULT_AGING_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs the queue with a flow per invocation
+     *
+     * @param aging the time a task waits before it is treated as one priority level higher
+     * @param unit the time unit of the aging step
+     */
+    public PriorityTaskQueue(final long aging, final TimeUnit unit)
+    {
+        this(aging, unit, PER_INVOCATION);
+    }
+
+    /**
+     * Constructs the queue
+     *
+     * @param aging the time a task waits before it is treated as one priority level higher
+     * @param unit the time unit of the aging step
+     * @param flowFunction the function deriving the flow of a task from its callable, e.g. {@link #PER_INVOCATION}
+     *     or {@link #PER_AUTHENTICATION}, tasks of a <code>null</code> flow share a single flow
+     */
+    public PriorityTaskQueue(final long aging, final TimeUnit unit,
+        final Function<ContextAwareCallable<?, ?>, Object> flowFunction)
+    {
+        if (aging <= 0)
+        {
+            throw new IllegalArgumentException("aging has to be greater than 0");
+        }
+        this.agingNanos = unit.toNanos(aging);
+        this.flowFunction = flowFunction;
+        this.levels = new Level[Priority.values().length];
+        for (int i = 0; i < levels.length; i++)
+        {
+            levels[i] = new Level();
+        }
+    }
+
+    @Override
+    public boolean offer(final Runnable task)
+    {
+        final Node node = createNode(task);
+        lock.lock();
+        try
+        {
+            levels[node.priority.ordinal()].add(node);
+            count++;
+            notEmpty.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(final Runnable task, final long timeout, final TimeUnit unit)
+    {
+        return offer(task);
+    }
+
+    @Override
+    public void put(final Runnable task)
+    {
+        offer(task);
+    }
+
+    @Override
+    public Runnable poll()
+    {
+        lock.lock();
+        try
+        {
+            return count == 0 ? null : dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException
+    {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try
+        {
+            while (count == 0)
+            {
+                if (nanos <= 0)
+                {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException
+    {
+        lock.lockInterruptibly();
+        try
+        {
+            while (count == 0)
+            {
+                notEmpty.await();
+            }
+            return dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek()
+    {
+        lock.lock();
+        try
+        {
+            final Level level = count == 0 ? null : next();
+            return level == null ? null : level.peek().task;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(final Object task)
+    {
+        lock.lock();
+        try
+        {
+            for (final Level level : levels)
+            {
+                if (level.remove(task))
+                {
+                    count--;
+                    return true;
+                }
+            }
+            return false;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            return count;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Runnable> target)
+    {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super Runnable> target, final int maxElements)
+    {
+        if (target == this)
+        {
+            throw new IllegalArgumentException("target must not be this queue");
+        }
+        lock.lock();
+        try
+        {
+            int drained = 0;
+            while (count > 0 && drained < maxElements)
+            {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the queued tasks, from the highest to the lowest priority level and flow
+     * by flow within a level. Removing a task by the iterator removes it from this queue.
+     */
+    @Override
+    public Iterator<Runnable> iterator()
+    {
+        final List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try
+        {
+            for (final Level level : levels)
+            {
+                level.ring.forEach(flow -> flow.nodes.forEach(node -> snapshot.add(node.task)));
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        final Iterator<Runnable> tasks = snapshot.iterator();
+        return new Iterator<Runnable>()
+        {
+            private Runnable current;
+
+            @Override
+            public boolean hasNext()
+            {
+                return tasks.hasNext();
+            }
+
+            @Override
+            public Runnable next()
+            {
+                current = tasks.next();
+                return current;
+            }
+
+            @Override
+            public void remove()
+            {
+                if (current == null)
+                {
+                    throw new IllegalStateException();
+                }
+                PriorityTaskQueue.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    /**
+     * Takes the next task, must be called holding the lock with at least one task queued
+     */
+    private Runnable dequeue()
+    {
+        count--;
+        return next().poll().task;
+    }
+
+    /**
+     * Selects the level whose next task is taken, which is the level with the highest aged priority. Between next
+     * tasks of the same aged priority, the one waiting longer wins.
+     */
+    private Level next()
+    {
+        final long now = System.nanoTime();
+        Level next = null;
+        long nextRank = Long.MAX_VALUE;
+        long nextEnqueued = 0;
+        for (int i = 0; i < levels.length; i++)
+        {
+            final Node head = levels[i].peek();
+            if (head == null)
+            {
+                continue;
+            }
+            final long rank = Math.max(0, i - (now - head.enqueuedNanos) / agingNanos);
+            if (rank < nextRank || rank == nextRank && head.enqueuedNanos - nextEnqueued < 0)
+            {
+                next = levels[i];
+                nextRank = rank;
+                nextEnqueued = head.enqueuedNanos;
+            }
+        }
+        return next;
+    }
+
+    private Node createNode(final Runnable task)
+    {
+        if (task == null)
+        {
+            throw new NullPointerException();
+        }
+        if (!(task instanceof ContextAwareFutureTask))
+        {
+            return new Node(task, Priority.NORMAL, SHARED_FLOW);
+        }
+        final ContextAwareCallable<?, ?> callable = ((ContextAwareFutureTask<?, ?>) task).getCallable();
+        final Object flow = flowFunction.apply(callable);
+        return new Node(task, callable.getPriority() == null ? Priority.NORMAL : callable.getPriority(),
+            flow == null ? SHARED_FLOW : flow);
+    }
+
+    /**
+     * The tasks of a single priority level, grouped into flows served round-robin
+     */
+    private static final class Level
+    {
+        private final Map<Object, Flow> flows = new HashMap<>();
+        private final ArrayDeque<Flow> ring = new ArrayDeque<>();
+
+        private void add(final Node node)
+        {
+            Flow flow = flows.get(node.flow);
+            if (flow == null)
+            {
+                flow = new Flow(node.flow);
+                flows.put(node.flow, flow);
+                ring.addLast(flow);
+            }
+            flow.nodes.addLast(node);
+        }
+
+        private Node peek()
+        {
+            final Flow flow = ring.peekFirst();
+            return flow == null ? null : flow.nodes.peekFirst();
+        }
+
+        private Node poll()
+        {
+            final Flow flow = ring.pollFirst();
+            final Node node = flow.nodes.pollFirst();
+            if (flow.nodes.isEmpty())
+            {
+                flows.remove(flow.key);
+            }
+            else
+            {
+                ring.addLast(flow);
+            }
+            return node;
+        }
+
+        private boolean remove(final Object task)
+        {
+            for (final Flow flow : ring)
+            {
+                final Iterator<Node> nodes = flow.nodes.iterator();
+                while (nodes.hasNext())
+                {
+                    if (nodes.next().task == task)
+                    {
+                        nodes.remove();
+                        if (flow.nodes.isEmpty())
+                        {
+                            flows.remove(flow.key);
+                            ring.remove(flow);
+                        }
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The queued tasks of a single flow
+     */
+    private static final class Flow
+    {
+        private final Object key;
+        private final ArrayDeque<Node> nodes = new ArrayDeque<>();
+
+        private Flow(final Object key)
+        {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A queued task together with its priority, flow and the time it was queued at
+     */
+    private static final class Node
+    {
+        private final Runnable task;
+        private final Priority priority;
+        private final Object flow;
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Node(final Runnable task, final Priority priority, final Object flow)
+        {
+            this.task = task;
+            this.priority = priority;
+            this.flow = flow;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package at.steell.spring.rest.utils.thread;
+
+/**
+ * Listener notified by {@link ThreadPoolExecutorImpl} about every task it executes. Listeners are called in the worker
+ * thread and must therefore be cheap.
+ */
+public interface TaskListener
+{
+    /**
+     * Called before the given task is run
+     *
+     * @param task the task about to be run
+     * @param queueWaitNanos the time the task waited in the queue in nanoseconds
+     */
+    default void taskStarted(final ContextAwareFutureTask<?, ?> task, final long queueWaitNanos)
+    {
+    }
+
+    /**
+     * Called after the given task was run
+     *
+     * @param task the completed task
+     * @param runNanos the time the task ran in nanoseconds
+     */
+    default void taskCompleted(final ContextAwareFutureTask<?, ?> task, final long runNanos)
+    {
+    }
+
+    /**
+     * Called instead of {@link #taskCompleted(ContextAwareFutureTask, long)} for a task which was cancelled before it
+     * ran, e.g. a hedged request whose sibling answered first
+     *
+     * @param task the cancelled task
+     */
+    default void taskCancelled(final ContextAwareFutureTask<?, ?> task)
+    {
+    }
+
+    /**
+     * Called after the context of the given task was restored in the worker thread, before it is run
+     *
+     * @param task the task about to be run
+     * @param restoreNanos the time restoring the context took in nanoseconds
+     */
+    default void contextRestored(final ContextAwareFutureTask<?, ?> task, final long restoreNanos)
+    {
+    }
+
+    /**
+     * Called after the context of the given task was cleared from the worker thread, after it was run
+     *
+     * @param task the completed task
+     * @param clearNanos the time clearing the context took in nanoseconds
+     */
+    default void contextCleared(final ContextAwareFutureTask<?, ?> task, final long clearNanos)
+    {
+    }
+}
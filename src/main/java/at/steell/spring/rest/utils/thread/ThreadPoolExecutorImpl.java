@@ -1,28 +1,40 @@
 package at.steell.spring.rest.utils.thread;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import at.steell.spring.rest.utils.dto.TypedResponse;
 import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
 
 /**
  * Derived {@link ThreadPoolExecutor} utilizing {@link #beforeExecute(Thread, Runnable)} and
- * {@link #afterExecute(Runnable, Throwable)} methods to setup tenant-, locale- and security- context in case given
- * runnables are {@link ContextAwareCallable} instances. This bean is installed once in the application context in order
- * to centrally manage the number of threads used to handle parallel invocation of rest execution
+ * {@link #afterExecute(Runnable, Throwable)} methods to setup the context captured by the registered
+ * {@link ContextPropagator} instances (e.g. locale- and security- context) in case given runnables are
+ * {@link ContextAwareCallable} instances. This bean is installed once in the application context in order
+ * to centrally manage the number of threads used to handle parallel invocation of rest execution.
+ * <p>
+ * Queued tasks are ordered by their {@link Priority} using a {@link PriorityTaskQueue}, so interactive requests go
+ * ahead of queued background work, and the invocations of a priority are served round-robin, so a huge fan-out does
+ * not occupy the whole pool.
+ * <p>
+ * The pool size is fixed, unless an {@link ElasticPoolSizer} is attached, sizing the pool within configured bounds
+ * by the observed rate and run time of tasks.
  *
  * @author Stefan Ellersdorfer (xel)
  */
 public class ThreadPoolExecutorImpl extends ThreadPoolExecutor implements ContextAwareExecutor
 {
+    /** marks the worker threads of this executor while running a task */
+    private final ThreadLocal<Boolean> workerThread = new ThreadLocal<>();
+    private volatile TaskListener[] taskListeners = {};
 
     /**
      * Creates a new {@code ThreadPoolExecutorImpl} with given initial parameters and default thread factory and
@@ -39,7 +51,31 @@ public class ThreadPoolExecutorImpl extends ThreadPoolExecutor implements Contex
      */
     public ThreadPoolExecutorImpl(final int poolSize)
     {
-        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        this(poolSize, PriorityTaskQueue.DEFAULT_AGING_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new {@code ThreadPoolExecutorImpl} with given pool size and aging step of queued tasks
+     *
+     * @param poolSize the number of threads to keep in the pool, number of maximum threads as well
+     * @param aging the time a queued task waits before it is treated as one priority level higher
+     * @param unit the time unit of the aging step
+     */
+    public ThreadPoolExecutorImpl(final int poolSize, final long aging, final TimeUnit unit)
+    {
+        this(poolSize, new PriorityTaskQueue(aging, unit));
+    }
+
+    /**
+     * Creates a new {@code ThreadPoolExecutorImpl} with given pool size and work queue, e.g. a
+     * {@link PriorityTaskQueue} grouping tasks into flows per authentication instead of per invocation
+     *
+     * @param poolSize the number of threads to keep in the pool, number of maximum threads as well
+     * @param workQueue the {@link PriorityTaskQueue} to hold tasks before they are executed
+     */
+    public ThreadPoolExecutorImpl(final int poolSize, final PriorityTaskQueue workQueue)
+    {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, workQueue);
     }
 
     /**
@@ -64,8 +100,27 @@ public class ThreadPoolExecutorImpl extends ThreadPoolExecutor implements Contex
     protected void beforeExecute(final Thread t, final Runnable r)
     {
         super.beforeExecute(t, r);
+        workerThread.set(Boolean.TRUE);
         final ContextAwareFutureTask<?, ?> futureTask = (ContextAwareFutureTask<?, ?>) r;
+        final TaskListener[] listeners = taskListeners;
+        if (listeners.length == 0)
+        {
+            futureTask.getCallable().beforeCall();
+            return;
+        }
+
+        final long queueWait = System.nanoTime() - futureTask.getSubmitNanos();
+        for (final TaskListener listener : listeners)
+        {
+            listener.taskStarted(futureTask, queueWait);
+        }
+        final long restoring = System.nanoTime();
         futureTask.getCallable().beforeCall();
+        final long restore = System.nanoTime() - restoring;
+        for (final TaskListener listener : listeners)
+        {
+            listener.contextRestored(futureTask, restore);
+        }
     }
 
     /**
@@ -78,7 +133,42 @@ public class ThreadPoolExecutorImpl extends ThreadPoolExecutor implements Contex
     {
         super.afterExecute(r, t);
         final ContextAwareFutureTask<?, ?> futureTask = (ContextAwareFutureTask<?, ?>) r;
+        final TaskListener[] listeners = taskListeners;
+        final long clearing = listeners.length == 0 ? 0 : System.nanoTime();
         futureTask.getCallable().afterCall();
+        workerThread.remove();
+        if (listeners.length == 0)
+        {
+            return;
+        }
+
+        final long clear = System.nanoTime() - clearing;
+        for (final TaskListener listener : listeners)
+        {
+            listener.contextCleared(futureTask, clear);
+        }
+        notifyCompleted(futureTask, listeners);
+    }
+
+    /**
+     * Notifies the given listeners about the completion of the given task, or about its cancellation in case it never
+     * ran
+     */
+    private static void notifyCompleted(final ContextAwareFutureTask<?, ?> task, final TaskListener[] listeners)
+    {
+        if (task.getStartNanos() == 0)
+        {
+            for (final TaskListener listener : listeners)
+            {
+                listener.taskCancelled(task);
+            }
+            return;
+        }
+        final long run = task.getDoneNanos() - task.getStartNanos();
+        for (final TaskListener listener : listeners)
+        {
+            listener.taskCompleted(task, run);
+        }
     }
 
     @Override
@@ -89,4 +179,75 @@ public class ThreadPoolExecutorImpl extends ThreadPoolExecutor implements Contex
     {
         return super.invokeAll(callables);
     }
+
+    @Override
+    //CHECKSTYLE:OFF too long generics
+    public <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>> ContextAwareFutureTask<RESPONSE, ID> submit(
+        final ContextAwareCallable<RESPONSE, ID> callable,
+        final Consumer<ContextAwareFutureTask<RESPONSE, ID>> completionListener)
+    //CHECKSTYLE:ON
+    {
+        final ContextAwareFutureTask<RESPONSE, ID> task = new ContextAwareFutureTask<>(callable, completionListener);
+        execute(task);
+        return task;
+    }
+
+    /**
+     * Adds a listener notified about every task executed by this executor
+     *
+     * @param listener the {@link TaskListener} to add
+     */
+    public synchronized void addTaskListener(final TaskListener listener)
+    {
+        final TaskListener[] listeners = Arrays.copyOf(taskListeners, taskListeners.length + 1);
+        listeners[taskListeners.length] = listener;
+        taskListeners = listeners;
+    }
+
+    /**
+     * Removes the given listener
+     *
+     * @param listener the {@link TaskListener} to remove
+     */
+    public synchronized void removeTaskListener(final TaskListener listener)
+    {
+        taskListeners = Arrays.stream(taskListeners).filter(registered -> registered != listener)
+            .toArray(TaskListener[]::new);
+    }
+
+    @Override
+    public boolean isWorkerThread()
+    {
+        return workerThread.get() != null;
+    }
+
+    /**
+     * Runs the given task in the current thread, in case it can be removed from the queue before a worker picks it
+     * up. The {@link TaskListener} instances are notified about the start and the completion of the task as well, but
+     * not about any context setup, as the task runs within the context of the current thread.<br />
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean runInline(final ContextAwareFutureTask<?, ?> task)
+    {
+        if (!remove(task))
+        {
+            return false;
+        }
+        final TaskListener[] listeners = taskListeners;
+        if (listeners.length == 0)
+        {
+            task.run();
+            return true;
+        }
+
+        final long queueWait = System.nanoTime() - task.getSubmitNanos();
+        for (final TaskListener listener : listeners)
+        {
+            listener.taskStarted(task, queueWait);
+        }
+        task.run();
+        notifyCompleted(task, listeners);
+        return true;
+    }
 }
@@ -73,6 +73,23 @@ public class IdentifierQueryRequestSplitterTest
         assertTrue(ids.isEmpty());
     }
 
+    @Test
+    public void testSplitMaxIds()
+    {
+        /* given */
+        List<String> ids = createIds(2500);
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(ids);
+
+        /* when */
+        List<IdentifierQueryRequest<String>> result = IdentifierQueryRequestSplitter.split(request, 1000);
+
+        /* then */
+        assertEquals(3, result.size());
+        assertEquals(1000, result.get(0).getIds().size());
+        assertEquals(500, result.get(2).getIds().size());
+        assertEquals(1, IdentifierQueryRequestSplitter.split(request, 2500).size());
+    }
+
     /**
      * Test utility to create some ID's for testing
      *
@@ -0,0 +1,162 @@
+package at.steell.rest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.collections4.ListUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.SpillingResponse;
+import at.steell.spring.rest.utils.SpillingResponseCollector;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link SpillingResponse} and its use by the {@link AbstractClientInvoker}
+ */
+public class SpillingResponseTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testSpilledElementsAreDeduplicated()
+    {
+        /* given */
+        List<String> ids = createIds(1000);
+        SpillingResponse<String> response = new SpillingResponse<>(100, 8);
+
+        /* when */
+        response.addAll(ids);
+        response.addAll(ids.subList(0, 500));
+
+        /* then */
+        assertTrue(response.isSpilled());
+        assertTrue(response.getSpilledCount() >= 1000);
+        Set<String> iterated = new HashSet<>();
+        response.forEach(id -> assertTrue(iterated.add(id), "duplicate " + id));
+        assertEquals(new HashSet<>(ids), iterated);
+        assertThrows(IllegalStateException.class, () -> response.add("late"));
+        response.close();
+    }
+
+    @Test
+    public void testSpilledObjectsAreReadBackAcrossSpills()
+    {
+        /* given */
+        SpillingResponse<Element> response = new SpillingResponse<>(10, 4);
+        Set<Element> elements = new HashSet<>();
+        for (int i = 0; i < 250; i++)
+        {
+            elements.add(new Element(i, "element " + i));
+        }
+
+        /* when */
+        elements.forEach(response::add);
+
+        /* then */
+        assertEquals(elements, response.stream().collect(Collectors.toSet()));
+        assertEquals(250, response.getSpilledCount());
+        response.close();
+    }
+
+    @Test
+    public void testElementsWithinBudgetAreNotSpilled()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+
+        /* when */
+        SpillingResponse<String> response = ListUtils.partition(ids, 10).stream()
+            .map(chunk -> new TypedResponse<>(new HashSet<>(chunk)))
+            .collect(new SpillingResponseCollector<String>(100, 8));
+
+        /* then */
+        assertFalse(response.isSpilled());
+        assertEquals(new HashSet<>(ids), response.stream().collect(Collectors.toSet()));
+        response.close();
+    }
+
+    @Test
+    public void testInvocationStreamsChunksToSpillingResponse()
+    {
+        /* given */
+        List<String> ids = createIds(500);
+        SpillingInvoker invoker = new SpillingInvoker();
+
+        /* when */
+        try (SpillingResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids)))
+        {
+            /* then */
+            assertTrue(response.isSpilled());
+            assertEquals(new HashSet<>(ids), response.stream().collect(Collectors.toSet()));
+        }
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class SpillingInvoker extends AbstractClientInvoker<TestClient>
+    {
+        SpillingInvoker()
+        {
+            super(new TestClient(), new ThreadPoolExecutorImpl(3));
+        }
+
+        SpillingResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invokeSpilling("getRessources", getClient()::getRessources, ids, new SpillingResponse<>(50, 4));
+        }
+    }
+
+    private static final class Element implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+        private final String name;
+
+        private Element(final int id, final String name)
+        {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            return obj instanceof Element && ((Element) obj).id == id && ((Element) obj).name.equals(name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return id;
+        }
+    }
+}
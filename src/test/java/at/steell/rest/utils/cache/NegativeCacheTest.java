@@ -0,0 +1,213 @@
+package at.steell.rest.utils.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.cache.BloomNegativeCache;
+import at.steell.spring.rest.utils.cache.ExpiringNegativeCache;
+import at.steell.spring.rest.utils.cache.NegativeCache;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.InvocationOptions;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link NegativeCache} implementations and their use by the {@link AbstractClientInvoker}
+ */
+public class NegativeCacheTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAbsentIdsAreNotRequestedAgain()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+        Set<String> deleted = new HashSet<>(ids.subList(0, 10));
+        DeletingClient client = new DeletingClient(deleted);
+        DeletingInvoker invoker = new DeletingInvoker(client);
+        invoker.setNegativeCache(new ExpiringNegativeCache(1, TimeUnit.MINUTES, 1000));
+        assertEquals(90, invoker.getRessources(new IdentifierQueryRequest<>(ids)).getElements().size());
+        int calls = client.calls.get();
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(deleted));
+
+        /* then */
+        assertTrue(response.getElements().isEmpty());
+        assertEquals(calls, client.calls.get());
+    }
+
+    @Test
+    public void testAbsentIdsAreScopedByPrincipal()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+        Set<String> hidden = new HashSet<>(ids.subList(0, 10));
+        DeletingClient client = new DeletingClient(hidden, "alice");
+        DeletingInvoker invoker = new DeletingInvoker(client);
+        invoker.setNegativeCache(new ExpiringNegativeCache(1, TimeUnit.MINUTES, 1000));
+        authenticate("alice");
+        assertEquals(90, invoker.getRessources(new IdentifierQueryRequest<>(ids)).getElements().size());
+        int calls = client.calls.get();
+
+        /* when */
+        authenticate("bob");
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(hidden));
+
+        /* then */
+        assertEquals(hidden, response.getElements());
+        assertTrue(client.calls.get() > calls);
+    }
+
+    @Test
+    public void testAbsentIdsExpire() throws InterruptedException
+    {
+        /* given */
+        ExpiringNegativeCache cache = new ExpiringNegativeCache(200, TimeUnit.MILLISECONDS, 1);
+        cache.addAbsent("deleted");
+        cache.addAbsent("ignored");
+        assertTrue(cache.isAbsent("deleted"));
+        assertFalse(cache.isAbsent("ignored"));
+
+        /* when */
+        Thread.sleep(250);
+
+        /* then */
+        assertFalse(cache.isAbsent("deleted"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpiredIdsMakeRoom() throws InterruptedException
+    {
+        /* given */
+        ExpiringNegativeCache cache = new ExpiringNegativeCache(200, TimeUnit.MILLISECONDS, 1);
+        cache.addAbsent("expired");
+        Thread.sleep(250);
+
+        /* when */
+        cache.addAbsent("deleted");
+
+        /* then */
+        assertTrue(cache.isAbsent("deleted"));
+        assertFalse(cache.isAbsent("expired"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBloomFilterForgetsIdsAfterIdleGap() throws InterruptedException
+    {
+        /* given */
+        BloomNegativeCache cache = new BloomNegativeCache(200, TimeUnit.MILLISECONDS, 1000, 0.01);
+        cache.addAbsent("deleted");
+        assertTrue(cache.isAbsent("deleted"));
+
+        /* when */
+        Thread.sleep(300);
+
+        /* then */
+        assertFalse(cache.isAbsent("deleted"));
+    }
+
+    @Test
+    public void testBloomFilterFalsePositiveRate()
+    {
+        /* given */
+        BloomNegativeCache cache = new BloomNegativeCache(1, TimeUnit.MINUTES, 1000, 0.01);
+        List<String> absent = createIds(999);
+
+        /* when */
+        absent.forEach(cache::addAbsent);
+
+        /* then */
+        assertTrue(absent.stream().allMatch(cache::isAbsent));
+        long falsePositives = createIds(10000).stream().filter(cache::isAbsent).count();
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    private static void authenticate(final String name)
+    {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class DeletingClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Set<String> deleted;
+        private final String principal;
+
+        DeletingClient(final Set<String> deleted)
+        {
+            this(deleted, null);
+        }
+
+        /**
+         * @param deleted the identifiers not found
+         * @param principal the only principal the identifiers are not found for, <code>null</code> for everyone
+         */
+        DeletingClient(final Set<String> deleted, final String principal)
+        {
+            this.deleted = deleted;
+            this.principal = principal;
+        }
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            calls.incrementAndGet();
+            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            final boolean hidden = principal == null
+                || authentication != null && principal.equals(authentication.getName());
+            return new TypedResponse<>(ids.getIds().stream().filter(id -> !hidden || !deleted.contains(id))
+                .collect(Collectors.toSet()));
+        }
+    }
+
+    private static class DeletingInvoker extends AbstractClientInvoker<DeletingClient>
+    {
+        DeletingInvoker(final DeletingClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(3));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids, new InvocationOptions<String, String>()
+                .withFunctionName("getRessources").withIdFunction(Function.identity()));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package at.steell.rest.utils.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.cache.RefreshAheadCache;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.InvocationOptions;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for serving stale elements of a {@link RefreshAheadCache} while refreshing them in the background
+ */
+public class RefreshAheadCacheTest
+{
+    @AfterEach
+    public void clear()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testFreshElementsAreServedFromCache()
+    {
+        /* given */
+        CountingClient client = new CountingClient();
+        CachingInvoker invoker = new CachingInvoker(client, new RefreshAheadCache<>(1, 2, TimeUnit.MINUTES, 1000));
+        List<String> ids = createIds(100);
+        invoker.getRessources(new IdentifierQueryRequest<>(ids));
+        int calls = client.calls.get();
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(calls, client.calls.get());
+    }
+
+    @Test
+    public void testStaleElementsAreServedAndRefreshed() throws InterruptedException
+    {
+        /* given */
+        CountingClient client = new CountingClient();
+        CachingInvoker invoker = new CachingInvoker(client,
+            new RefreshAheadCache<>(10, 60000, TimeUnit.MILLISECONDS, 1000));
+        List<String> ids = createIds(100);
+        invoker.getRessources(new IdentifierQueryRequest<>(ids));
+        int calls = client.calls.get();
+        Thread.sleep(20);
+        client.blocked = true;
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(calls, client.calls.get());
+        client.blocked = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (client.calls.get() < 2 * calls && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+        }
+        assertEquals(2 * calls, client.calls.get());
+    }
+
+    @Test
+    public void testHardExpiredElementsAreRequested() throws InterruptedException
+    {
+        /* given */
+        CountingClient client = new CountingClient();
+        CachingInvoker invoker = new CachingInvoker(client, new RefreshAheadCache<>(5, 5, TimeUnit.MILLISECONDS, 1000));
+        List<String> ids = createIds(100);
+        invoker.getRessources(new IdentifierQueryRequest<>(ids));
+        int calls = client.calls.get();
+        Thread.sleep(10);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertTrue(client.calls.get() > calls);
+    }
+
+    @Test
+    public void testHardExpiredElementsMakeRoom() throws InterruptedException
+    {
+        /* given */
+        RefreshAheadCache<String, String> cache = new RefreshAheadCache<>(100, 200, TimeUnit.MILLISECONDS, 1);
+        cache.put(Collections.singleton("expired"), Collections.singleton("expired"), Function.identity());
+        cache.put(Collections.singleton("ignored"), Collections.singleton("ignored"), Function.identity());
+        assertEquals(Collections.singletonList("ignored"), cache.lookup(Collections.singleton("ignored")).getMissing());
+        Thread.sleep(250);
+
+        /* when */
+        cache.put(Collections.singleton("loaded"), Collections.singleton("loaded"), Function.identity());
+
+        /* then */
+        assertEquals(Collections.singletonList("loaded"), cache.lookup(Collections.singleton("loaded")).getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRefreshFetchesChangedElementsDespiteRequestMemo() throws InterruptedException
+    {
+        /* given */
+        VersionedClient client = new VersionedClient();
+        RefreshAheadCache<String, String> cache = new RefreshAheadCache<>(10, 60000, TimeUnit.MILLISECONDS, 1000);
+        VersionedInvoker invoker = new VersionedInvoker(client, cache);
+        invoker.setRequestMemoization(true);
+        List<String> ids = createIds(10);
+        TypedResponse<String> response;
+        try (ExecutionContext.Scope scope = ExecutionContext.open())
+        {
+            invoker.getVersions(new IdentifierQueryRequest<>(ids));
+            invoker.getMemoized(new IdentifierQueryRequest<>(ids));
+            Thread.sleep(20);
+            client.version = 2;
+
+            /* when */
+            response = invoker.getVersions(new IdentifierQueryRequest<>(ids));
+        }
+
+        /* then */
+        assertTrue(response.getElements().stream().allMatch(element -> element.endsWith("@1")));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!cache.lookup(ids).getHits().stream().allMatch(element -> element.endsWith("@2"))
+            && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+        }
+        assertTrue(cache.lookup(ids).getHits().stream().allMatch(element -> element.endsWith("@2")));
+        assertEquals(10, cache.lookup(ids).getHits().size());
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class CountingClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean blocked;
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            while (blocked)
+            {
+                Thread.yield();
+            }
+            calls.incrementAndGet();
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class CachingInvoker extends AbstractClientInvoker<CountingClient>
+    {
+        private final RefreshAheadCache<String, String> cache;
+
+        CachingInvoker(final CountingClient client, final RefreshAheadCache<String, String> cache)
+        {
+            super(client, new ThreadPoolExecutorImpl(4));
+            this.cache = cache;
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invokeCached("getRessources", getClient()::getRessources, ids, Function.identity(), cache);
+        }
+    }
+
+    /**
+     * Test client answering the identifiers along with the current version of the backing data
+     */
+    private static class VersionedClient
+    {
+        private volatile int version = 1;
+
+        TypedResponse<String> getVersions(final IdentifierQueryRequest<String> ids)
+        {
+            return new TypedResponse<>(ids.getIds().stream().map(id -> id + "@" + version)
+                .collect(Collectors.toSet()));
+        }
+    }
+
+    private static class VersionedInvoker extends AbstractClientInvoker<VersionedClient>
+    {
+        private final RefreshAheadCache<String, String> cache;
+
+        VersionedInvoker(final VersionedClient client, final RefreshAheadCache<String, String> cache)
+        {
+            super(client, new ThreadPoolExecutorImpl(4));
+            this.cache = cache;
+        }
+
+        TypedResponse<String> getVersions(final IdentifierQueryRequest<String> ids)
+        {
+            return invokeCached("getVersions", getClient()::getVersions, ids, VersionedInvoker::idOf, cache);
+        }
+
+        TypedResponse<String> getMemoized(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getVersions, ids, new InvocationOptions<String, String>()
+                .withFunctionName("getVersions").withIdFunction(VersionedInvoker::idOf));
+        }
+
+        private static String idOf(final String element)
+        {
+            return element.substring(0, element.indexOf('@'));
+        }
+    }
+}
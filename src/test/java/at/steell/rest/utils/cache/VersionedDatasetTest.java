@@ -0,0 +1,203 @@
+package at.steell.rest.utils.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.cache.VersionedDataset;
+import at.steell.spring.rest.utils.dto.ConditionalQueryRequest;
+import at.steell.spring.rest.utils.dto.ConditionalResponse;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for refreshing a {@link VersionedDataset} incrementally
+ */
+public class VersionedDatasetTest
+{
+    @AfterEach
+    public void clear()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testUnknownElementsAreFetched()
+    {
+        /* given */
+        VersionedClient client = new VersionedClient(createIds(100));
+        IncrementalInvoker invoker = new IncrementalInvoker(client);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(client.versions.keySet()));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(100, client.fetched.get());
+        assertEquals(0, client.conditional.get());
+        assertEquals(100, invoker.dataset.size());
+    }
+
+    @Test
+    public void testOnlyChangedElementsAreTransferred()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+        VersionedClient client = new VersionedClient(ids);
+        IncrementalInvoker invoker = new IncrementalInvoker(client);
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(ids);
+        invoker.getRessources(request);
+        client.versions.put(ids.get(0), "2");
+        client.versions.put(ids.get(1), "2");
+        client.versions.remove(ids.get(2));
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(request);
+
+        /* then */
+        assertEquals(99, response.getElements().size());
+        assertTrue(response.getElements().contains(ids.get(0) + "@2"));
+        assertTrue(response.getElements().contains(ids.get(1) + "@2"));
+        assertFalse(response.getElements().contains(ids.get(0) + "@1"));
+        assertFalse(response.getElementsIndexed(VersionedDatasetTest::idOf).containsKey(ids.get(2)));
+        assertEquals(100, client.fetched.get());
+        assertEquals(100, client.conditional.get());
+        assertEquals(2, client.changed.get());
+        assertEquals(99, invoker.dataset.size());
+    }
+
+    @Test
+    public void testNewIdentifiersAreFetchedAlongsideRefresh()
+    {
+        /* given */
+        List<String> ids = createIds(20);
+        VersionedClient client = new VersionedClient(ids);
+        IncrementalInvoker invoker = new IncrementalInvoker(client);
+        invoker.getRessources(new IdentifierQueryRequest<>(ids.subList(0, 10)));
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(20, response.getElements().size());
+        assertEquals(20, client.fetched.get());
+        assertEquals(10, client.conditional.get());
+        assertEquals(0, client.changed.get());
+    }
+
+    @Test
+    public void testElementsWithoutVersionAreRefetched()
+    {
+        /* given */
+        List<String> ids = createIds(10);
+        VersionedClient client = new VersionedClient(ids);
+        client.versions.put(ids.get(0), "");
+        IncrementalInvoker invoker = new IncrementalInvoker(client);
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(ids);
+        invoker.getRessources(request);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(request);
+
+        /* then */
+        assertEquals(10, response.getElements().size());
+        assertEquals(11, client.fetched.get());
+        assertEquals(9, client.conditional.get());
+    }
+
+    private static String idOf(final String element)
+    {
+        return element.substring(0, element.indexOf('@'));
+    }
+
+    private static String versionOf(final String element)
+    {
+        String version = element.substring(element.indexOf('@') + 1);
+        return version.isEmpty() ? null : version;
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class VersionedClient
+    {
+        private final Map<String, String> versions = new ConcurrentHashMap<>();
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicInteger conditional = new AtomicInteger();
+        private final AtomicInteger changed = new AtomicInteger();
+
+        VersionedClient(final List<String> ids)
+        {
+            ids.forEach(id -> versions.put(id, "1"));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> request)
+        {
+            fetched.addAndGet(request.getIds().size());
+            return new TypedResponse<>(request.getIds().stream().filter(versions::containsKey)
+                .map(id -> id + "@" + versions.get(id)).collect(Collectors.toSet()));
+        }
+
+        ConditionalResponse<String, String> getChangedRessources(final ConditionalQueryRequest<String> request)
+        {
+            conditional.addAndGet(request.getIds().size());
+            ConditionalResponse<String, String> response = new ConditionalResponse<>();
+            Set<String> removed = new HashSet<>();
+            request.getVersions().forEach((id, version) ->
+            {
+                String current = versions.get(id);
+                if (current == null)
+                {
+                    removed.add(id);
+                }
+                else if (!current.equals(version))
+                {
+                    changed.incrementAndGet();
+                    response.add(id + "@" + current);
+                }
+            });
+            response.setRemovedIds(removed);
+            return response;
+        }
+    }
+
+    private static class IncrementalInvoker extends AbstractClientInvoker<VersionedClient>
+    {
+        private final VersionedDataset<String, String> dataset = new VersionedDataset<>(VersionedDatasetTest::idOf,
+            VersionedDatasetTest::versionOf);
+
+        IncrementalInvoker(final VersionedClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(4));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> request)
+        {
+            return invokeIncremental("getRessources", getClient()::getRessources, getClient()::getChangedRessources,
+                request, dataset);
+        }
+    }
+}
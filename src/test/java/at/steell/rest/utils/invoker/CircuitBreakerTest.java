@@ -0,0 +1,134 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.exception.CircuitBreakerOpenException;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.CircuitBreaker;
+import at.steell.spring.rest.utils.invoker.CircuitBreaker.State;
+import at.steell.spring.rest.utils.invoker.InvocationOptions;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link CircuitBreaker} of the {@link AbstractClientInvoker}
+ */
+public class CircuitBreakerTest
+{
+    @Test
+    public void testOpenBreakerShortCircuits()
+    {
+        /* given */
+        ToggleClient client = new ToggleClient();
+        ToggleInvoker invoker = new ToggleInvoker(client);
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 1, 60000, 60000, TimeUnit.MILLISECONDS, 4, 4, 2);
+        invoker.setCircuitBreaker(breaker);
+        client.failing.set(true);
+        assertThrows(IllegalStateException.class, () -> invoker.getRessources(createRequest(), null));
+        assertEquals(State.OPEN, breaker.getState());
+        int calls = client.calls.get();
+
+        /* when */
+        assertThrows(CircuitBreakerOpenException.class, () -> invoker.getRessources(createRequest(), null));
+        TypedResponse<String> first = invoker.getRessources(createRequest(), TypedResponse::new);
+        first.add("modified");
+        TypedResponse<String> second = invoker.getRessources(createRequest(), TypedResponse::new);
+
+        /* then */
+        assertNotSame(first, second);
+        assertTrue(second.getElements().isEmpty());
+        assertEquals(calls, client.calls.get());
+    }
+
+    @Test
+    public void testHalfOpenProbeClosesBreaker() throws InterruptedException
+    {
+        /* given */
+        ToggleClient client = new ToggleClient();
+        ToggleInvoker invoker = new ToggleInvoker(client);
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 1, 60000, 50, TimeUnit.MILLISECONDS, 4, 4, 2);
+        invoker.setCircuitBreaker(breaker);
+        client.failing.set(true);
+        assertThrows(IllegalStateException.class, () -> invoker.getRessources(createRequest(), null));
+        client.failing.set(false);
+        Thread.sleep(60);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(createRequest(), null);
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testSlowCallsOpenBreaker()
+    {
+        /* given */
+        CircuitBreaker breaker = new CircuitBreaker(1, 0.5, 10, 60000, TimeUnit.MILLISECONDS, 4, 2, 1);
+
+        /* when */
+        breaker.record(TimeUnit.MILLISECONDS.toNanos(1), false);
+        breaker.record(TimeUnit.MILLISECONDS.toNanos(20), false);
+
+        /* then */
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    private IdentifierQueryRequest<String> createRequest()
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return new IdentifierQueryRequest<>(ids);
+    }
+
+    private static class ToggleClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            calls.incrementAndGet();
+            if (failing.get())
+            {
+                throw new IllegalArgumentException("downstream failed");
+            }
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class ToggleInvoker extends AbstractClientInvoker<ToggleClient>
+    {
+        ToggleInvoker(final ToggleClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(4));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids,
+            final Supplier<TypedResponse<String>> fallback)
+        {
+            return invoke(getClient()::getRessources, ids,
+                new InvocationOptions<String, String>().withFunctionName("getRessources").withFallback(fallback));
+        }
+    }
+}
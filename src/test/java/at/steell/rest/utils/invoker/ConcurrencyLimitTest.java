@@ -0,0 +1,155 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.AdaptiveConcurrencyLimit;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the adaptive concurrency limit of the {@link AbstractClientInvoker}
+ */
+public class ConcurrencyLimitTest
+{
+    @Test
+    public void testLimitAdaptsToRoundTripTime()
+    {
+        /* given */
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 0.5, 2);
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        /* when */
+        limit.release(100, false);
+
+        /* then */
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+        assertEquals(100, limit.getMinRttNanos());
+
+        /* when */
+        limit.acquire();
+        limit.release(1000, false);
+
+        /* then */
+        assertEquals(1, limit.getLimit());
+
+        /* when */
+        limit.acquire();
+        limit.release(100, true);
+
+        /* then */
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testLimitDecreasesOncePerRoundTrip()
+    {
+        /* given */
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 10, 0.5, 2);
+        limit.acquire();
+        limit.release(100, false);
+
+        /* when */
+        for (int i = 0; i < 5; i++)
+        {
+            limit.acquire();
+            limit.release(TimeUnit.SECONDS.toNanos(1), false);
+        }
+
+        /* then */
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    public void testRejectedChunkReleasesItsSlot()
+    {
+        /* given */
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 1, 10, 0.5, 2);
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(1);
+        executor.shutdown();
+        TestInvoker invoker = new TestInvoker(new TestClient(), executor);
+        invoker.setConcurrencyLimit(limit);
+
+        /* then */
+        assertThrows(RejectedExecutionException.class,
+            () -> invoker.getRessources(new IdentifierQueryRequest<>(createIds(10))));
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testChunksInFlightAreLimited()
+    {
+        /* given */
+        ConcurrencyTrackingClient client = new ConcurrencyTrackingClient();
+        TestInvoker invoker = new TestInvoker(client, new ThreadPoolExecutorImpl(4));
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, 0.5, 2);
+        invoker.setConcurrencyLimit(limit);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(4, client.calls.get());
+        assertEquals(1, client.maxConcurrency.get());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Client tracking the maximum amount of concurrent calls
+     */
+    private static class ConcurrencyTrackingClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            calls.incrementAndGet();
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            try
+            {
+                Thread.sleep(10);
+                return super.getRessources(ids);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            finally
+            {
+                concurrency.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for failing fast of the {@link AbstractClientInvoker}
+ */
+public class FailFastTest
+{
+    private static final long LATENCY_MILLIS = 1000;
+
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+        Thread.interrupted();
+    }
+
+    @Test
+    public void testFirstFailureCancelsRemainingChunks() throws InterruptedException
+    {
+        /* given */
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(createIds(500));
+        int chunks = IdentifierQueryRequestSplitter.split(request).size();
+        SlowInvoker invoker = new SlowInvoker();
+        invoker.setFailFast(true);
+
+        /* when */
+        long start = System.nanoTime();
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+            () -> invoker.lookup(request));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        /* then */
+        assertEquals("first chunk failed", failure.getMessage());
+        assertTrue(elapsed < LATENCY_MILLIS, "took " + elapsed + "ms");
+        assertTrue(invoker.calls.get() < chunks, invoker.calls.get() + " of " + chunks + " chunks requested");
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(invoker.calls.get() - 1, invoker.interrupted.get());
+    }
+
+    @Test
+    public void testFailureIsWrappedWithoutFailingFast()
+    {
+        /* given */
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(createIds(5));
+        SlowInvoker invoker = new SlowInvoker();
+
+        /* then */
+        assertThrows(IllegalStateException.class, () -> invoker.lookup(request));
+    }
+
+    @Test
+    public void testInterruptRestoresInterruptStatus()
+    {
+        /* given */
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(createIds(100));
+        SlowInvoker invoker = new SlowInvoker();
+        invoker.calls.incrementAndGet();
+        invoker.setFailFast(true);
+        Thread.currentThread().interrupt();
+
+        /* when */
+        assertThrows(IllegalStateException.class, () -> invoker.lookup(request));
+
+        /* then */
+        assertTrue(Thread.interrupted());
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class SlowInvoker extends AbstractClientInvoker<Object>
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger interrupted = new AtomicInteger();
+
+        SlowInvoker()
+        {
+            super(new Object(), new ThreadPoolExecutorImpl(2));
+        }
+
+        TypedResponse<String> lookup(final IdentifierQueryRequest<String> request)
+        {
+            return invoke(this::getNames, request);
+        }
+
+        TypedResponse<String> getNames(final IdentifierQueryRequest<String> request)
+        {
+            if (calls.getAndIncrement() == 0)
+            {
+                throw new IllegalArgumentException("first chunk failed");
+            }
+            try
+            {
+                Thread.sleep(LATENCY_MILLIS);
+            }
+            catch (InterruptedException e)
+            {
+                interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+            }
+            TypedResponse<String> response = new TypedResponse<>();
+            response.setElements(request.getIds());
+            return response;
+        }
+    }
+}
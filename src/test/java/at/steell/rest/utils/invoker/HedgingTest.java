@@ -0,0 +1,161 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.HedgingPolicy;
+import at.steell.spring.rest.utils.invoker.LatencyTracker;
+import at.steell.spring.rest.utils.invoker.RequestBudget;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for hedged chunk requests of the {@link AbstractClientInvoker}
+ */
+public class HedgingTest
+{
+    @Test
+    public void testLatencyTrackerPercentile()
+    {
+        /* given */
+        LatencyTracker tracker = new LatencyTracker(100);
+        for (int i = 1; i <= 200; i++)
+        {
+            tracker.record(i);
+        }
+
+        /* then */
+        assertEquals(100, tracker.getSampleCount());
+        assertEquals(195, tracker.percentile(0.95));
+        assertEquals(200, tracker.percentile(1));
+    }
+
+    @Test
+    public void testLatencyTrackerPercentileIsCached()
+    {
+        /* given */
+        LatencyTracker tracker = new LatencyTracker(160);
+        for (int i = 1; i <= 160; i++)
+        {
+            tracker.record(i);
+        }
+        assertEquals(160, tracker.percentile(1));
+
+        /* when */
+        for (int i = 0; i < 9; i++)
+        {
+            tracker.record(1000);
+        }
+
+        /* then */
+        assertEquals(160, tracker.percentile(1));
+        tracker.record(1000);
+        assertEquals(1000, tracker.percentile(1));
+    }
+
+    @Test
+    public void testRequestBudget()
+    {
+        /* given */
+        RequestBudget budget = new RequestBudget(0.5, 1);
+
+        /* when */
+        assertTrue(budget.tryWithdraw());
+        budget.deposit();
+
+        /* then */
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    /**
+     * The first request of the slow chunk blocks much longer than any other chunk, so the hedged request answers it
+     */
+    @Test
+    public void testSlowChunkIsHedged()
+    {
+        /* given */
+        SlowFirstCallClient client = new SlowFirstCallClient();
+        SlowFirstCallInvoker invoker = new SlowFirstCallInvoker(client);
+        invoker.setHedgingPolicy(new HedgingPolicy(0.9, 1, 20, TimeUnit.MILLISECONDS, 5));
+        for (int i = 0; i < 10; i++)
+        {
+            invoker.getRessources(new IdentifierQueryRequest<>(createIds(1)));
+        }
+        client.slowCall.set(client.calls.get() + 1);
+        List<String> ids = createIds(1);
+
+        /* when */
+        long start = System.nanoTime();
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertEquals(ids.size(), response.getElements().size());
+        assertTrue(response.getElements().containsAll(ids));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Test client blocking a single call for a long time
+     */
+    private static class SlowFirstCallClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger slowCall = new AtomicInteger(-1);
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            if (calls.incrementAndGet() == slowCall.get())
+            {
+                try
+                {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class SlowFirstCallInvoker extends AbstractClientInvoker<SlowFirstCallClient>
+    {
+        SlowFirstCallInvoker(final SlowFirstCallClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(3));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids);
+        }
+    }
+}
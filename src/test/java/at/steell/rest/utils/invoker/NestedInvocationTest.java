@@ -0,0 +1,107 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
+import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for {@link AbstractClientInvoker} invocations nested in a chunk running on the same executor
+ */
+public class NestedInvocationTest
+{
+    /**
+     * Every chunk of the outer invocation invokes a nested fan out on the same single threaded pool, which would
+     * deadlock in case the nested chunks were only waited for
+     */
+    @Test
+    public void testNestedInvocationDoesNotDeadlock()
+    {
+        /* given */
+        ContextAwareExecutor executor = new ThreadPoolExecutorImpl(1);
+        SimpleInvoker inner = new SimpleInvoker(new TestClient(), executor);
+        SimpleInvoker outer = new SimpleInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                return inner.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+            }
+        }, executor);
+
+        /* when */
+        TypedResponse<String> response = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> outer.getRessources(new IdentifierQueryRequest<>(createIds(100))));
+
+        /* then */
+        assertEquals(100 * 4, response.getElements().size());
+    }
+
+    /**
+     * An executor implemented outside of this library only offering {@link ContextAwareExecutor#invokeAll(List)} runs
+     * the chunks one by one
+     */
+    @Test
+    public void testExecutorOnlyInvokingAll()
+    {
+        /* given */
+        ContextAwareExecutor pool = new ThreadPoolExecutorImpl(2);
+        ContextAwareExecutor executor = new ContextAwareExecutor()
+        {
+            @Override
+            public <RESPONSE extends Serializable, ID extends Serializable & Comparable<ID>>
+                List<Future<TypedResponse<RESPONSE>>> invokeAll(final List<ContextAwareCallable<RESPONSE, ID>> callables)
+                    throws InterruptedException
+            {
+                return pool.invokeAll(callables);
+            }
+        };
+        SimpleInvoker invoker = new SimpleInvoker(new TestClient(), executor);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertFalse(executor.isWorkerThread());
+        assertEquals(100, response.getElements().size());
+    }
+
+    private static List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class SimpleInvoker extends AbstractClientInvoker<TestClient>
+    {
+        SimpleInvoker(final TestClient client, final ContextAwareExecutor executor)
+        {
+            super(client, executor);
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.RateLimiter;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for pacing chunks of the {@link AbstractClientInvoker} by a {@link RateLimiter}
+ */
+public class RateLimiterTest
+{
+    @Test
+    public void testBurstIsLimited()
+    {
+        /* given */
+        RateLimiter limiter = new RateLimiter(1, 2);
+
+        /* when */
+        long first = limiter.tryAcquire();
+        long second = limiter.tryAcquire();
+        long third = limiter.tryAcquire();
+
+        /* then */
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    public void testChunksArePaced()
+    {
+        /* given */
+        List<Long> calls = Collections.synchronizedList(new ArrayList<>());
+        TestInvoker invoker = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                calls.add(System.nanoTime());
+                return super.getRessources(ids);
+            }
+        }, new ThreadPoolExecutorImpl(4));
+        invoker.setRateLimiter(new RateLimiter(50));
+
+        /* when */
+        long start = System.nanoTime();
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertEquals(100, response.getElements().size());
+        assertEquals(4, calls.size());
+        /* the first chunk takes the initial token, every further chunk waits 20ms for its token */
+        assertTrue(Collections.max(calls) - start >= TimeUnit.MILLISECONDS.toNanos(60));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,200 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.InvocationOptions;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for request scoped memoization of the {@link AbstractClientInvoker}
+ */
+public class RequestMemoizationTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testOnlyUnseenIdsAreFetched()
+    {
+        /* given */
+        List<String> ids = createIds(20);
+        RecordingClient client = new RecordingClient();
+        RecordingInvoker invoker = new RecordingInvoker(client);
+        invoker.setRequestMemoization(true);
+        try (ExecutionContext.Scope scope = ExecutionContext.open())
+        {
+            invoker.getRessources(new IdentifierQueryRequest<>(ids.subList(0, 10)));
+
+            /* when */
+            TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids.subList(5, 20)));
+
+            /* then */
+            assertEquals(15, response.getElements().size());
+            assertTrue(response.getElements().containsAll(ids.subList(5, 20)));
+            assertEquals(20, client.requested.size());
+            assertEquals(new HashSet<>(ids), new HashSet<>(client.requested));
+        }
+    }
+
+    @Test
+    public void testSecondRequestOnSameThreadFetchesAgain()
+    {
+        /* given */
+        List<String> ids = createIds(10);
+        RecordingClient client = new RecordingClient();
+        RecordingInvoker invoker = new RecordingInvoker(client);
+        invoker.setRequestMemoization(true);
+        try (ExecutionContext.Scope scope = ExecutionContext.open())
+        {
+            invoker.getRessources(new IdentifierQueryRequest<>(ids));
+            invoker.getRessources(new IdentifierQueryRequest<>(ids));
+        }
+        assertEquals(1, client.calls);
+
+        /* when */
+        TypedResponse<String> response;
+        try (ExecutionContext.Scope scope = ExecutionContext.open())
+        {
+            response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+        }
+
+        /* then */
+        assertEquals(10, response.getElements().size());
+        assertEquals(2, client.calls);
+        assertNull(ExecutionContext.get());
+    }
+
+    @Test
+    public void testNothingIsMemoizedOutsideScope()
+    {
+        /* given */
+        List<String> ids = createIds(10);
+        RecordingClient client = new RecordingClient();
+        RecordingInvoker invoker = new RecordingInvoker(client);
+        invoker.setRequestMemoization(true);
+        invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(10, response.getElements().size());
+        assertEquals(2, client.calls);
+    }
+
+    @Test
+    public void testMemoIsKeptPerPrincipal()
+    {
+        /* given */
+        List<String> ids = createIds(10);
+        RecordingClient client = new RecordingClient();
+        RecordingInvoker invoker = new RecordingInvoker(client);
+        invoker.setRequestMemoization(true);
+        try (ExecutionContext.Scope scope = ExecutionContext.open())
+        {
+            authenticate("alice");
+            invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+            /* when */
+            authenticate("bob");
+            TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+            /* then */
+            assertEquals(10, response.getElements().size());
+            assertEquals(2, client.calls);
+        }
+    }
+
+    @Test
+    public void testNestedScopeJoinsOuterScope()
+    {
+        /* given */
+        List<String> ids = createIds(10);
+        RecordingClient client = new RecordingClient();
+        RecordingInvoker invoker = new RecordingInvoker(client);
+        invoker.setRequestMemoization(true);
+        try (ExecutionContext.Scope outer = ExecutionContext.open())
+        {
+            invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+            /* when */
+            try (ExecutionContext.Scope inner = ExecutionContext.open())
+            {
+                invoker.getRessources(new IdentifierQueryRequest<>(ids));
+            }
+
+            /* then */
+            assertEquals(1, client.calls);
+            assertSame(outer.getContext(), ExecutionContext.get());
+        }
+    }
+
+    private static void authenticate(final String name)
+    {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Test client recording the requested ids
+     */
+    private static class RecordingClient extends TestClient
+    {
+        private final List<String> requested = new ArrayList<>();
+        private int calls;
+
+        @Override
+        public synchronized TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            calls++;
+            requested.addAll(ids.getIds());
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class RecordingInvoker extends AbstractClientInvoker<RecordingClient>
+    {
+        RecordingInvoker(final RecordingClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(3));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids, new InvocationOptions<String, String>()
+                .withFunctionName("getRessources").withIdFunction(Function.identity()));
+        }
+    }
+}
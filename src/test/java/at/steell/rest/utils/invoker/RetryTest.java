@@ -0,0 +1,127 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.RetryPolicy;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for chunk level retries of the {@link AbstractClientInvoker}
+ */
+public class RetryTest
+{
+    @Test
+    public void testOnlyFailedChunkIsRetried()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(ids);
+        FailingClient client = new FailingClient(ids.get(0), 2);
+        FailingInvoker invoker = new FailingInvoker(client);
+        invoker.setRetryPolicy(new RetryPolicy(3, 1, 10, TimeUnit.MILLISECONDS, 1, RuntimeException.class::isInstance));
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(request);
+
+        /* then */
+        assertEquals(ids.size(), response.getElements().size());
+        assertTrue(response.getElements().containsAll(ids));
+        assertEquals(IdentifierQueryRequestSplitter.split(request).size() + 2, client.calls.get());
+    }
+
+    @Test
+    public void testNotRetryableFailure()
+    {
+        /* given */
+        List<String> ids = createIds(100);
+        FailingClient client = new FailingClient(ids.get(0), 1);
+        FailingInvoker invoker = new FailingInvoker(client);
+        invoker.setRetryPolicy(new RetryPolicy(3, 1, 10, TimeUnit.MILLISECONDS, 1,
+            RetryPolicy.retryOn(UnsupportedOperationException.class)));
+
+        /* then */
+        assertThrows(IllegalStateException.class, () -> invoker.getRessources(new IdentifierQueryRequest<>(ids)));
+    }
+
+    @Test
+    public void testBackoffIsBounded()
+    {
+        /* given */
+        RetryPolicy policy = new RetryPolicy(10, 10, 100, TimeUnit.MILLISECONDS, 1, t -> true);
+
+        /* then */
+        for (int attempt = 1; attempt < 10; attempt++)
+        {
+            long backoff = policy.getBackoffNanos(attempt);
+            assertTrue(backoff >= 0 && backoff <= TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertTrue(policy.isRetryable(new IllegalStateException(), 9));
+        assertFalse(policy.isRetryable(new IllegalStateException(), 10));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Test client failing the given amount of calls of the chunk containing the given id
+     */
+    private static class FailingClient extends TestClient
+    {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures;
+        private final String failingId;
+
+        FailingClient(final String failingId, final int failures)
+        {
+            this.failingId = failingId;
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            calls.incrementAndGet();
+            if (ids.getIds().contains(failingId) && failures.getAndDecrement() > 0)
+            {
+                throw new IllegalArgumentException("chunk failed");
+            }
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class FailingInvoker extends AbstractClientInvoker<FailingClient>
+    {
+        FailingInvoker(final FailingClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(3));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.ScatterGather;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link ScatterGather} of the {@link AbstractClientInvoker}
+ */
+public class ScatterGatherTest
+{
+    private static final long LATENCY_MILLIS = 200;
+
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testFunctionsAreDispatchedTogether()
+    {
+        /* given */
+        List<String> names = createIds(20);
+        List<Long> numbers = new ArrayList<>();
+        for (long i = 0; i < 20; i++)
+        {
+            numbers.add(i);
+        }
+        SlowInvoker invoker = new SlowInvoker();
+        ScatterGather scatterGather = invoker.scatter();
+        ScatterGather.Key<String> nameKey = scatterGather.add(invoker::getNames, new IdentifierQueryRequest<>(names));
+        ScatterGather.Key<Integer> numberKey = scatterGather.add(invoker::getNumbers,
+            new IdentifierQueryRequest<>(numbers));
+
+        /* when */
+        long start = System.nanoTime();
+        ScatterGather.Result result = scatterGather.execute();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        /* then */
+        assertTrue(elapsed < 2 * LATENCY_MILLIS, "took " + elapsed + "ms");
+        assertEquals(names.size(), result.get(nameKey).getElements().size());
+        assertTrue(result.get(nameKey).getElements().containsAll(names));
+        assertEquals(numbers.stream().map(Long::intValue).collect(Collectors.toSet()),
+            result.get(numberKey).getElements());
+    }
+
+    @Test
+    public void testFailingFunctionFailsScatterGather()
+    {
+        /* given */
+        SlowInvoker invoker = new SlowInvoker();
+        ScatterGather scatterGather = invoker.scatter();
+        scatterGather.add(invoker::getNames, new IdentifierQueryRequest<>(createIds(5)));
+        scatterGather.add(request ->
+        {
+            throw new IllegalArgumentException("function failed");
+        }, new IdentifierQueryRequest<>(createIds(5)));
+
+        /* then */
+        assertThrows(IllegalStateException.class, scatterGather::execute);
+        assertThrows(IllegalStateException.class, scatterGather::execute);
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static void sleep()
+    {
+        try
+        {
+            Thread.sleep(LATENCY_MILLIS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SlowInvoker extends AbstractClientInvoker<Object>
+    {
+        SlowInvoker()
+        {
+            super(new Object(), new ThreadPoolExecutorImpl(4));
+        }
+
+        @Override
+        protected ScatterGather scatter()
+        {
+            return super.scatter();
+        }
+
+        TypedResponse<String> getNames(final IdentifierQueryRequest<String> request)
+        {
+            sleep();
+            TypedResponse<String> response = new TypedResponse<>();
+            response.setElements(request.getIds());
+            return response;
+        }
+
+        TypedResponse<Integer> getNumbers(final IdentifierQueryRequest<Long> request)
+        {
+            sleep();
+            TypedResponse<Integer> response = new TypedResponse<>();
+            response.setElements(request.getIds().stream().map(Long::intValue).collect(Collectors.toSet()));
+            return response;
+        }
+    }
+}
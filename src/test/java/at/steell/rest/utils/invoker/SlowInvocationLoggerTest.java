@@ -0,0 +1,153 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.SlowInvocationLogger;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link SlowInvocationLogger}
+ */
+public class SlowInvocationLoggerTest
+{
+    @AfterEach
+    public void clear()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testSlowInvocationIsLogged()
+    {
+        /* given */
+        TestInvoker invoker = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                sleep(20);
+                return super.getRessources(ids);
+            }
+        }, new ThreadPoolExecutorImpl(4));
+        RecordingLogger logger = new RecordingLogger(10);
+        invoker.addInvocationListener(logger);
+
+        /* when */
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertEquals(1, logger.lines.size());
+        String line = logger.lines.get(0);
+        assertTrue(line.startsWith("slow invocation client=TestInvoker function=getRessources "));
+        assertTrue(line.contains(" chunks=4 "));
+        assertTrue(line.contains(" slowestChunk.ids=25 "));
+        assertTrue(line.contains(SlowInvocationLoggerTest.class.getName() + ".testSlowInvocationIsLogged"));
+    }
+
+    @Test
+    public void testCallSiteOfSlowInvocationIsLogged()
+    {
+        /* given */
+        TestInvoker slowInvoker = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                sleep(200);
+                return super.getRessources(ids);
+            }
+        }, new ThreadPoolExecutorImpl(4));
+        TestInvoker fastInvoker = new TestInvoker();
+        RecordingLogger logger = new RecordingLogger(100);
+        slowInvoker.addInvocationListener(logger);
+        fastInvoker.addInvocationListener(logger);
+
+        /* when */
+        invokeFast(fastInvoker);
+        invokeSlow(slowInvoker);
+
+        /* then */
+        assertEquals(1, logger.lines.size());
+        String line = logger.lines.get(0);
+        assertTrue(line.contains(".invokeSlow("));
+        assertFalse(line.contains(".invokeFast("));
+    }
+
+    @Test
+    public void testFastInvocationIsNotLogged()
+    {
+        /* given */
+        TestInvoker invoker = new TestInvoker();
+        RecordingLogger logger = new RecordingLogger(10000);
+        invoker.addInvocationListener(logger);
+
+        /* when */
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertTrue(logger.lines.isEmpty());
+    }
+
+    private void invokeSlow(TestInvoker invoker)
+    {
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+    }
+
+    private void invokeFast(TestInvoker invoker)
+    {
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class RecordingLogger extends SlowInvocationLogger
+    {
+        private final List<String> lines = new ArrayList<>();
+
+        RecordingLogger(long thresholdMillis)
+        {
+            super(thresholdMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        protected void log(final String line)
+        {
+            lines.add(line);
+        }
+    }
+}
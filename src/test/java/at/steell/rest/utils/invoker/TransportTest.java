@@ -0,0 +1,137 @@
+package at.steell.rest.utils.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.spring.rest.utils.IdentifierQueryRequestSplitter;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.invoker.InvocationOptions;
+import at.steell.spring.rest.utils.invoker.LatencyTracker;
+import at.steell.spring.rest.utils.invoker.TransportPolicy;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the transport selection of the {@link AbstractClientInvoker}
+ */
+public class TransportTest
+{
+    @AfterEach
+    public void tearDown()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testSmallLookupUsesQuery()
+    {
+        /* given */
+        List<String> ids = createIds(50);
+        IdentifierQueryRequest<String> request = new IdentifierQueryRequest<>(ids);
+        TransportClient client = new TransportClient();
+        TransportInvoker invoker = new TransportInvoker(client);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(request);
+
+        /* then */
+        assertEquals(ids.size(), response.getElements().size());
+        assertEquals(IdentifierQueryRequestSplitter.split(request).size(), client.queryCalls.get());
+        assertEquals(0, client.bodyCalls.get());
+    }
+
+    @Test
+    public void testLargeLookupUsesBody()
+    {
+        /* given */
+        List<String> ids = createIds(2500);
+        TransportClient client = new TransportClient();
+        TransportInvoker invoker = new TransportInvoker(client);
+
+        /* when */
+        TypedResponse<String> response = invoker.getRessources(new IdentifierQueryRequest<>(ids));
+
+        /* then */
+        assertEquals(ids.size(), response.getElements().size());
+        assertTrue(response.getElements().containsAll(ids));
+        assertEquals(3, client.bodyCalls.get());
+        assertEquals(0, client.queryCalls.get());
+    }
+
+    @Test
+    public void testCheaperTransportIsPreferred()
+    {
+        /* given */
+        TransportPolicy policy = new TransportPolicy(100, 1000, 4, 1);
+        LatencyTracker queryCost = new LatencyTracker();
+        LatencyTracker bodyCost = new LatencyTracker();
+        queryCost.record(10);
+        bodyCost.record(20);
+
+        /* then */
+        assertFalse(policy.useBody(100, queryCost, bodyCost, 0));
+        assertFalse(policy.useBody(500, queryCost, bodyCost, 0));
+        assertTrue(policy.useBody(500, queryCost, bodyCost, 3));
+        bodyCost.record(5);
+        bodyCost.record(5);
+        assertTrue(policy.useBody(500, queryCost, bodyCost, 0));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    /**
+     * Test client counting the calls of its query and body transport
+     */
+    private static class TransportClient extends TestClient
+    {
+        private final AtomicInteger queryCalls = new AtomicInteger();
+        private final AtomicInteger bodyCalls = new AtomicInteger();
+
+        @Override
+        public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            queryCalls.incrementAndGet();
+            return super.getRessources(ids);
+        }
+
+        TypedResponse<String> searchRessources(final IdentifierQueryRequest<String> ids)
+        {
+            bodyCalls.incrementAndGet();
+            return super.getRessources(ids);
+        }
+    }
+
+    private static class TransportInvoker extends AbstractClientInvoker<TransportClient>
+    {
+        TransportInvoker(final TransportClient client)
+        {
+            super(client, new ThreadPoolExecutorImpl(3));
+        }
+
+        TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+        {
+            return invoke(getClient()::getRessources, ids, new InvocationOptions<String, String>()
+                .withFunctionName("getRessources").withBodyFunction(getClient()::searchRessources));
+        }
+    }
+}
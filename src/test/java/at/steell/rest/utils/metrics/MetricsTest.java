@@ -0,0 +1,65 @@
+package at.steell.rest.utils.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.metrics.ClientInvokerMetrics;
+import at.steell.spring.rest.utils.metrics.ThreadPoolExecutorMetrics;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for the Micrometer binders {@link ThreadPoolExecutorMetrics} and {@link ClientInvokerMetrics}
+ */
+public class MetricsTest
+{
+    @AfterEach
+    public void clear()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testInvocationIsRecorded()
+    {
+        /* given */
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(3);
+        TestInvoker invoker = new TestInvoker(new TestClient(), executor);
+        new ThreadPoolExecutorMetrics(executor, "rest", Tags.empty()).bindTo(registry);
+        new ClientInvokerMetrics(invoker, Tags.empty()).bindTo(registry);
+
+        /* when */
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        assertEquals(1, registry.get("rest.invoker.invocation").tag("client", "TestInvoker")
+            .tag("function", "getRessources").tag("outcome", "success").timer().count());
+        assertEquals(4, registry.get("rest.invoker.chunks").summary().totalAmount());
+        assertEquals(4, registry.get("rest.invoker.chunk.ids").summary().count());
+        assertEquals(4, registry.get("rest.executor.wait").tag("name", "rest").timer().count());
+        assertEquals(0, registry.get("rest.executor.queued").gauge().value());
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+}
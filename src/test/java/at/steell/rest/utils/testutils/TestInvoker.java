@@ -3,6 +3,7 @@ package at.steell.rest.utils.testutils;
 import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
 import at.steell.spring.rest.utils.dto.TypedResponse;
 import at.steell.spring.rest.utils.invoker.AbstractClientInvoker;
+import at.steell.spring.rest.utils.thread.ContextAwareExecutor;
 import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
 
 /**
@@ -20,8 +21,19 @@ public class TestInvoker extends AbstractClientInvoker<TestClient>
         super(new TestClient(), new ThreadPoolExecutorImpl(3));
     }
 
+    /**
+     * Constructs the test invoker
+     *
+     * @param client the client to be used
+     * @param executor the executor to be used
+     */
+    public TestInvoker(final TestClient client, final ContextAwareExecutor executor)
+    {
+        super(client, executor);
+    }
+
     public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
     {
-        return super.invoke(getClient()::getRessources, ids);
+        return super.invoke("getRessources", getClient()::getRessources, ids);
     }
 }
@@ -0,0 +1,130 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.thread.ContextPropagator;
+import at.steell.spring.rest.utils.thread.ContextPropagators;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for propagating context information via registered {@link ContextPropagator} instances
+ */
+public class ContextPropagationTest
+{
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    private final TenantPropagator propagator = new TenantPropagator();
+
+    @AfterEach
+    public void unregister()
+    {
+        ContextPropagators.unregister(propagator);
+        LocaleContextHolder.resetLocaleContext();
+        TENANT.remove();
+    }
+
+    @Test
+    public void testContextIsCapturedOncePerInvocation() throws InterruptedException
+    {
+        /* given */
+        ContextPropagators.register(propagator);
+        TENANT.set("tenant");
+        LocaleContextHolder.setLocale(Locale.GERMAN);
+        Set<String> tenants = ConcurrentHashMap.newKeySet();
+        Set<Locale> locales = ConcurrentHashMap.newKeySet();
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(3);
+        TestInvoker invoker = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                tenants.add(String.valueOf(TENANT.get()));
+                locales.add(LocaleContextHolder.getLocale());
+                return super.getRessources(ids);
+            }
+        }, executor);
+
+        /* when */
+        invoker.getRessources(new IdentifierQueryRequest<>(createIds(100)));
+        /* the context is cleared after a chunk completed, so wait for the workers to finish */
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        /* then */
+        assertEquals(1, propagator.captures.get());
+        assertEquals(1, tenants.size());
+        assertTrue(tenants.contains("tenant"));
+        assertEquals(1, locales.size());
+        assertTrue(locales.contains(Locale.GERMAN));
+        assertEquals(4, propagator.clears.get());
+    }
+
+    @Test
+    public void testUnregisteredPropagatorIsNotUsed()
+    {
+        /* given */
+        ContextPropagators.register(propagator);
+        ContextPropagators.unregister(propagator);
+        TENANT.set("tenant");
+
+        /* when */
+        new TestInvoker().getRessources(new IdentifierQueryRequest<>(createIds(10)));
+
+        /* then */
+        assertEquals(0, propagator.captures.get());
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+
+    private static class TenantPropagator implements ContextPropagator<String>
+    {
+        private final AtomicInteger captures = new AtomicInteger();
+        private final AtomicInteger clears = new AtomicInteger();
+
+        @Override
+        public String capture()
+        {
+            captures.incrementAndGet();
+            return TENANT.get();
+        }
+
+        @Override
+        public void restore(final String snapshot)
+        {
+            TENANT.set(snapshot);
+        }
+
+        @Override
+        public void clear()
+        {
+            clears.incrementAndGet();
+            TENANT.remove();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
+import at.steell.spring.rest.utils.thread.ContextAwareFutureTask;
+import at.steell.spring.rest.utils.thread.ContextSnapshot;
+import at.steell.spring.rest.utils.thread.ElasticPoolSizer;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link ElasticPoolSizer} of the {@link ThreadPoolExecutorImpl}
+ */
+public class ElasticPoolSizerTest
+{
+    @Test
+    public void testBoundsAreApplied()
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(10);
+
+        /* when */
+        ElasticPoolSizer sizer = new ElasticPoolSizer(executor, 2, 4);
+
+        /* then */
+        assertEquals(4, sizer.getSize());
+        assertEquals(4, executor.getMaximumPoolSize());
+        assertNull(sizer.getLastDecision());
+        assertThrows(IllegalArgumentException.class, () -> new ElasticPoolSizer(executor, 4, 2));
+        sizer.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPoolGrowsOnQueueWait() throws InterruptedException
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(1);
+        ElasticPoolSizer sizer = new ElasticPoolSizer(executor, 1, 4, TimeUnit.HOURS.toMillis(1), 10,
+            TimeUnit.MILLISECONDS);
+
+        /* when */
+        for (int i = 0; i < 12; i++)
+        {
+            executor.execute(createTask(50));
+        }
+        executor.shutdown();
+
+        /* then */
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(4, executor.getLargestPoolSize());
+        assertEquals(ElasticPoolSizer.Reason.QUEUE_WAIT, sizer.getLastDecision().getReason());
+        assertTrue(sizer.getDecisionCount() >= 3);
+        sizer.close();
+    }
+
+    @Test
+    public void testGrowthIsBoundedPerQueueWait() throws InterruptedException
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(1);
+        ElasticPoolSizer sizer = new ElasticPoolSizer(executor, 1, 16, TimeUnit.HOURS.toMillis(1), 100,
+            TimeUnit.MILLISECONDS);
+
+        /* when */
+        long start = System.nanoTime();
+        for (int i = 0; i < 40; i++)
+        {
+            executor.execute(createTask(20));
+        }
+        executor.shutdown();
+
+        /* then */
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(executor.getLargestPoolSize() > 1);
+        assertTrue(sizer.getDecisionCount() <= elapsed / 100 + 1,
+            sizer.getDecisionCount() + " decisions within " + elapsed + "ms");
+        sizer.close();
+    }
+
+    @Test
+    public void testIdlePoolShrinks() throws InterruptedException
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(4);
+        executor.prestartAllCoreThreads();
+        ElasticPoolSizer sizer = new ElasticPoolSizer(executor, 1, 4, 20, 1000, TimeUnit.MILLISECONDS);
+
+        /* when */
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (executor.getPoolSize() > 1 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        /* then */
+        assertEquals(1, sizer.getSize());
+        assertEquals(1, executor.getPoolSize());
+        assertEquals(ElasticPoolSizer.Reason.LITTLES_LAW, sizer.getLastDecision().getReason());
+        sizer.close();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testPoolIsSizedByLittlesLaw() throws Exception
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(4);
+        ElasticPoolSizer sizer = new ElasticPoolSizer(executor, 1, 4, 50, 1000, TimeUnit.MILLISECONDS);
+
+        /* when */
+        for (int i = 0; i < 10; i++)
+        {
+            ContextAwareFutureTask<String, String> task = createTask(5);
+            executor.execute(task);
+            task.get();
+            Thread.sleep(20);
+        }
+
+        /* then */
+        assertEquals(1, sizer.getSize());
+        ElasticPoolSizer.Decision decision = sizer.getLastDecision();
+        assertEquals(ElasticPoolSizer.Reason.LITTLES_LAW, decision.getReason());
+        assertEquals(4, decision.getPreviousSize());
+        assertEquals(1, decision.getNewSize());
+        assertTrue(decision.getRate() > 0);
+        assertTrue(decision.getAverageRunNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        sizer.close();
+        executor.shutdown();
+    }
+
+    private static ContextAwareFutureTask<String, String> createTask(final long millis)
+    {
+        Function<IdentifierQueryRequest<String>, TypedResponse<String>> function = request ->
+        {
+            try
+            {
+                Thread.sleep(millis);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return new TypedResponse<>();
+        };
+        return new ContextAwareFutureTask<>(new ContextAwareCallable<>(function, new IdentifierQueryRequest<>(),
+            ContextSnapshot.capture(), null, null));
+    }
+}
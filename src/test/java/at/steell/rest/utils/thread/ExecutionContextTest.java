@@ -0,0 +1,99 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+
+/**
+ * Unit tests for the call site capturing of {@link ExecutionContext}
+ */
+public class ExecutionContextTest
+{
+    @AfterEach
+    public void reset()
+    {
+        ExecutionContext.clear();
+        ExecutionContext.setSampleRate(1);
+    }
+
+    @Test
+    public void testCallSiteIsAttachedToInvocation()
+    {
+        /* given */
+        ExecutionContext context = ExecutionContext.start();
+
+        /* when */
+        InvocationTrace trace = context.startInvocation("test", 1);
+
+        /* then */
+        String callSite = trace.getCallSite();
+        assertTrue(callSite.contains(ExecutionContextTest.class.getName() + ".testCallSiteIsAttachedToInvocation"));
+        assertFalse(callSite.contains(ExecutionContext.class.getName()));
+        assertSame(callSite, trace.getCallSite());
+    }
+
+    @Test
+    public void testEachInvocationKeepsItsOwnCallSite()
+    {
+        /* given */
+        ExecutionContext context = ExecutionContext.start();
+
+        /* when */
+        InvocationTrace first = startFirst(context);
+        InvocationTrace second = startSecond(context);
+
+        /* then */
+        assertTrue(first.getCallSite().contains("startFirst"));
+        assertFalse(first.getCallSite().contains("startSecond"));
+        assertTrue(second.getCallSite().contains("startSecond"));
+        assertFalse(second.getCallSite().contains("startFirst"));
+    }
+
+    @Test
+    public void testSampling()
+    {
+        /* given */
+        ExecutionContext.setSampleRate(2);
+        ExecutionContext context = ExecutionContext.start();
+
+        /* when */
+        InvocationTrace first = startFirst(context);
+        InvocationTrace second = startSecond(context);
+
+        /* then */
+        assertNotNull(first.getCallSite());
+        assertNull(second.getCallSite());
+    }
+
+    @Test
+    public void testCapturingDisabled()
+    {
+        /* given */
+        ExecutionContext.setSampleRate(0);
+        ExecutionContext context = ExecutionContext.start();
+
+        /* when */
+        InvocationTrace trace = startFirst(context);
+
+        /* then */
+        assertNull(trace.getCallSite());
+    }
+
+    private InvocationTrace startFirst(ExecutionContext context)
+    {
+        return context.startInvocation("first", 1);
+    }
+
+    private InvocationTrace startSecond(ExecutionContext context)
+    {
+        return context.startInvocation("second", 1);
+    }
+}
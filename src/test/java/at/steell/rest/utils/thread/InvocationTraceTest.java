@@ -0,0 +1,92 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import at.steell.rest.utils.testutils.TestClient;
+import at.steell.rest.utils.testutils.TestInvoker;
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.thread.ExecutionContext;
+import at.steell.spring.rest.utils.thread.InvocationTrace;
+import at.steell.spring.rest.utils.thread.InvocationTrace.ChunkTrace;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for tracing invocations in the {@link ExecutionContext}
+ */
+public class InvocationTraceTest
+{
+    @AfterEach
+    public void clear()
+    {
+        ExecutionContext.clear();
+    }
+
+    @Test
+    public void testInvocationIsTraced()
+    {
+        /* when */
+        new TestInvoker().getRessources(new IdentifierQueryRequest<>(createIds(100)));
+
+        /* then */
+        List<InvocationTrace> invocations = ExecutionContext.get().getInvocations();
+        assertEquals(1, invocations.size());
+        InvocationTrace invocation = invocations.get(0);
+        assertEquals(100, invocation.getIdCount());
+        assertEquals(4, invocation.getChunks().size());
+        for (ChunkTrace chunk : invocation.getChunks())
+        {
+            assertEquals(25, chunk.getIdCount());
+            assertEquals(25, chunk.getResultCount());
+            assertEquals(1, chunk.getAttempts());
+        }
+        assertTrue(ExecutionContext.get().printSummary().startsWith("TestInvoker[ids=100 chunks=4 "));
+    }
+
+    @Test
+    public void testNestedInvocationIsTracedAsChild()
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(2);
+        TestInvoker inner = new TestInvoker(new TestClient(), executor);
+        TestInvoker outer = new TestInvoker(new TestClient()
+        {
+            @Override
+            public TypedResponse<String> getRessources(final IdentifierQueryRequest<String> ids)
+            {
+                return inner.getRessources(ids);
+            }
+        }, executor);
+
+        /* when */
+        outer.getRessources(new IdentifierQueryRequest<>(createIds(50)));
+
+        /* then */
+        List<InvocationTrace> invocations = ExecutionContext.get().getInvocations();
+        assertEquals(1, invocations.size());
+        for (ChunkTrace chunk : invocations.get(0).getChunks())
+        {
+            assertEquals(1, chunk.getNested().size());
+            assertEquals(chunk.getIdCount(), chunk.getNested().get(0).getIdCount());
+        }
+        assertTrue(invocations.get(0).toSummary().contains("{TestInvoker[ids=25 chunks=1 "));
+    }
+
+    private List<String> createIds(int amount)
+    {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < amount; i++)
+        {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,169 @@
+package at.steell.rest.utils.thread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import at.steell.spring.rest.utils.dto.IdentifierQueryRequest;
+import at.steell.spring.rest.utils.dto.TypedResponse;
+import at.steell.spring.rest.utils.invoker.ContextAwareCallable;
+import at.steell.spring.rest.utils.thread.ContextAwareFutureTask;
+import at.steell.spring.rest.utils.thread.ContextSnapshot;
+import at.steell.spring.rest.utils.thread.Priority;
+import at.steell.spring.rest.utils.thread.PriorityTaskQueue;
+import at.steell.spring.rest.utils.thread.ThreadPoolExecutorImpl;
+
+/**
+ * Unit tests for the {@link PriorityTaskQueue} of the {@link ThreadPoolExecutorImpl}
+ */
+public class PriorityTaskQueueTest
+{
+    @Test
+    public void testHigherPriorityIsTakenFirst()
+    {
+        /* given */
+        PriorityTaskQueue queue = new PriorityTaskQueue(1, TimeUnit.HOURS);
+        Runnable batch = createTask("batch", Priority.BATCH, null);
+        Runnable normal = createTask("normal", Priority.NORMAL, null);
+        Runnable first = createTask("first", Priority.INTERACTIVE, null);
+        Runnable second = createTask("second", Priority.INTERACTIVE, null);
+
+        /* when */
+        queue.addAll(Arrays.asList(batch, normal, first, second));
+
+        /* then */
+        assertEquals(4, queue.size());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(normal, queue.poll());
+        assertSame(batch, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testWaitingTasksAge() throws InterruptedException
+    {
+        /* given */
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, TimeUnit.MILLISECONDS);
+        Runnable batch = createTask("batch", Priority.BATCH, null);
+        queue.offer(batch);
+        Thread.sleep(30);
+        Runnable interactive = createTask("interactive", Priority.INTERACTIVE, null);
+
+        /* when */
+        queue.offer(interactive);
+
+        /* then */
+        assertSame(batch, queue.poll());
+        assertSame(interactive, queue.poll());
+    }
+
+    @Test
+    public void testFlowsAreServedRoundRobin()
+    {
+        /* given */
+        PriorityTaskQueue queue = new PriorityTaskQueue();
+        ContextSnapshot huge = ContextSnapshot.capture();
+        ContextSnapshot small = ContextSnapshot.capture();
+        List<Runnable> hugeTasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            hugeTasks.add(createTask(huge, Priority.NORMAL, null));
+        }
+        Runnable first = createTask(small, Priority.NORMAL, null);
+        Runnable second = createTask(small, Priority.NORMAL, null);
+
+        /* when */
+        queue.addAll(hugeTasks);
+        queue.offer(first);
+        queue.offer(second);
+
+        /* then */
+        assertSame(hugeTasks.get(0), queue.poll());
+        assertSame(first, queue.poll());
+        assertSame(hugeTasks.get(1), queue.poll());
+        assertSame(second, queue.poll());
+        assertTrue(queue.remove(hugeTasks.get(99)));
+        assertEquals(97, queue.size());
+        for (int i = 2; i < 99; i++)
+        {
+            assertSame(hugeTasks.get(i), queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testInteractiveTasksGoAheadOfQueuedBatchTasks() throws InterruptedException
+    {
+        /* given */
+        ThreadPoolExecutorImpl executor = new ThreadPoolExecutorImpl(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+        executor.execute(createTask("blocker", Priority.NORMAL, blocked));
+        for (int i = 0; i < 3; i++)
+        {
+            executor.execute(createTask("batch", Priority.BATCH, executed));
+        }
+        executor.execute(createTask("interactive", Priority.INTERACTIVE, executed));
+
+        /* when */
+        blocked.countDown();
+        executor.shutdown();
+
+        /* then */
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("interactive", "batch", "batch", "batch"), executed);
+    }
+
+    private static Runnable createTask(final String name, final Priority priority, final Object sync)
+    {
+        return createTask(ContextSnapshot.capture(), priority, sync, name);
+    }
+
+    private static Runnable createTask(final ContextSnapshot context, final Priority priority, final Object sync)
+    {
+        return createTask(context, priority, sync, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Runnable createTask(final ContextSnapshot context, final Priority priority, final Object sync,
+        final String name)
+    {
+        Function<IdentifierQueryRequest<String>, TypedResponse<String>> function = request ->
+        {
+            if (sync instanceof CountDownLatch)
+            {
+                await((CountDownLatch) sync);
+            }
+            else if (sync instanceof List)
+            {
+                ((List<String>) sync).add(name);
+            }
+            return new TypedResponse<>();
+        };
+        return new ContextAwareFutureTask<>(new ContextAwareCallable<>(function, new IdentifierQueryRequest<>(),
+            context, null, priority));
+    }
+
+    private static void await(final CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}